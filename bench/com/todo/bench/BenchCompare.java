@@ -0,0 +1,98 @@
+package com.todo.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares two JMH result files ({@code -rf json}) from {@link TodoBenchmarks}.
+ *
+ * Usage: java com.todo.bench.BenchCompare baseline.json current.json [thresholdPercent]
+ * Prints the change per benchmark and exits with status 1 if any got slower by more than the
+ * threshold (default 10%) and by more than the two runs' combined error.
+ */
+public class BenchCompare {
+
+    // JMH writes one pretty-printed object per result; params are only there when the benchmark has some
+    private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)}");
+    private static final Pattern PARAM = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern SCORE = Pattern.compile(
+            "\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*\"?([^,\"]+)\"?\\s*,\\s*\"scoreError\"\\s*:\\s*\"?([^,\"]+)\"?");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchCompare baseline.json current.json [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, double[]> baseline = read(args[0]);
+        Map<String, double[]> current = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            double[] after = entry.getValue();
+            if (before == null) {
+                System.out.printf("  new   %-60s %12.1f ns/op%n", entry.getKey(), after[0]);
+                continue;
+            }
+            double change = (after[0] - before[0]) / before[0] * 100.0;
+            double noise = errorOrZero(before[1]) + errorOrZero(after[1]);
+            boolean regressed = change > threshold && after[0] - before[0] > noise;
+            if (regressed) regressions++;
+            System.out.printf("%s %+6.1f%% %-60s %12.1f -> %12.1f ns/op%n",
+                    regressed ? "SLOWER" : "      ", change, entry.getKey(), before[0], after[0]);
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%.");
+            System.exit(1);
+        }
+    }
+
+    private static double errorOrZero(double error) {
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    // com.todo.bench.TodoBenchmarks.dllFind -> TodoBenchmarks.dllFind
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        return benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1);
+    }
+
+    // key (name + params) -> {score, error}
+    private static Map<String, double[]> read(String file) throws IOException {
+        String json = Files.readString(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, double[]> results = new LinkedHashMap<>();
+        Matcher benchmark = BENCHMARK.matcher(json);
+        boolean found = benchmark.find();
+        while (found) {
+            String name = shortName(benchmark.group(1));
+            int start = benchmark.end();
+            found = benchmark.find();
+            String result = json.substring(start, found ? benchmark.start() : json.length());
+
+            StringBuilder key = new StringBuilder(name);
+            Matcher params = PARAMS.matcher(result);
+            if (params.find()) {
+                Matcher param = PARAM.matcher(params.group(1));
+                String separator = " {";
+                while (param.find()) {
+                    key.append(separator).append(param.group(1)).append('=').append(param.group(2));
+                    separator = ", ";
+                }
+                if (separator.equals(", ")) key.append('}');
+            }
+            Matcher score = SCORE.matcher(result);
+            if (score.find()) {
+                results.put(key.toString(), new double[]{Double.parseDouble(score.group(1)), Double.parseDouble(score.group(2))});
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,215 @@
+package com.todo.bench;
+
+import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.Task;
+import com.todo.service.ConcurrentTodoService;
+import com.todo.service.DatabaseManager;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stress test for ConcurrentTodoService: worker threads hammer it with the LoadGenerator mix
+ * while a checker thread keeps reading it and verifying the list invariants, and a second reader
+ * walks it through forEachTask. At the end, with
+ * all threads stopped, it also checks the momentum order and that the database matches memory.
+ *
+ * Usage: java com.todo.bench.ConcurrencyStress [-threads 8] [-ops 20000] [-roots 200] [-rounds 3] [-seed 1]
+ * Exits with status 1 and prints the violations if any invariant broke.
+ * ConcurrencyStressTest runs a short version as part of {@code mvn test}.
+ */
+public class ConcurrencyStress {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = LoadGenerator.options(args);
+        int threads = Integer.parseInt(opts.getOrDefault("threads", "8"));
+        int opsPerThread = Integer.parseInt(opts.getOrDefault("ops", "20000"));
+        int roots = Integer.parseInt(opts.getOrDefault("roots", "200"));
+        int rounds = Integer.parseInt(opts.getOrDefault("rounds", "3"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+
+        List<String> violations = run(threads, opsPerThread, roots, rounds, seed);
+        if (!violations.isEmpty()) {
+            violations.stream().limit(20).forEach(v -> System.out.println("❌ " + v));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run the stress rounds, each against a fresh database in a temporary directory, stopping
+     * after the first round that breaks an invariant. Returns the violations; empty when all held.
+     */
+    static List<String> run(int threads, int opsPerThread, int roots, int rounds, long seed) throws Exception {
+        // Few roots and a high delete/undo share: as much contention on one list as possible
+        Map<String, Integer> mix = new HashMap<>();
+        mix.put("add", 15);
+        mix.put("subtask", 15);
+        mix.put("work", 30);
+        mix.put("status", 25);
+        mix.put("delete", 8);
+        mix.put("undo", 7);
+        mix.put("momentum", 1);
+
+        List<String> violations = new ArrayList<>();
+        PrintStream console = System.out;
+        for (int round = 0; round < rounds && violations.isEmpty(); round++) {
+            Path dir = Files.createTempDirectory("todo-stress");
+            Path db = dir.resolve("stress.db");
+            DatabaseManager.useDatabase("jdbc:sqlite:" + db.toAbsolutePath());
+            DatabaseManager.initializeDatabase();
+            for (Task root : Datasets.hierarchy(seed + round, roots, 1, 2, 30)) {
+                DatabaseManager.saveTaskTree(root, null);
+            }
+
+            ConcurrentTodoService service = new ConcurrentTodoService();
+            LoadGenerator generator = new LoadGenerator(service, mix);
+            AtomicBoolean running = new AtomicBoolean(true);
+            int[] checks = {0};
+            int[] walks = {0};
+
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try {
+                Thread checker = new Thread(() -> {
+                    while (running.get() && violations.isEmpty()) {
+                        service.readTasks(tasks -> {
+                            synchronized (violations) {
+                                checkStructure(tasks, violations);
+                            }
+                        });
+                        checks[0]++;
+                    }
+                }, "stress-checker");
+                checker.start();
+                Thread walker = new Thread(() -> {
+                    while (running.get() && violations.isEmpty()) {
+                        service.forEachTask(task -> checkSubtasks(task, violations));
+                        walks[0]++;
+                    }
+                }, "stress-walker");
+                walker.start();
+
+                List<Thread> workers = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    Random rnd = new Random(seed * 1000 + round * 100 + i);
+                    LatencyStats ignored = new LatencyStats();
+                    Thread worker = new Thread(() -> {
+                        for (int n = 0; n < opsPerThread; n++) generator.step(rnd, ignored);
+                    }, "stress-" + i);
+                    workers.add(worker);
+                    worker.start();
+                }
+                for (Thread worker : workers) worker.join();
+                running.set(false);
+                checker.join();
+                walker.join();
+
+                // Quiescent: everything must hold exactly now
+                service.readTasks(tasks -> {
+                    checkStructure(tasks, violations);
+                    checkMomentumOrder(tasks, violations);
+                });
+                service.flush();
+                checkDatabase(service, violations);
+            } finally {
+                System.setOut(console);
+            }
+
+            int[] size = {0};
+            service.readTasks(tasks -> size[0] = tasks.size());
+            System.out.printf("round %d: %d threads x %d ops, %d concurrent checks, %d forEachTask walks, %d top-level tasks at the end, %s%n",
+                    round + 1, threads, opsPerThread, checks[0], walks[0], size[0],
+                    violations.isEmpty() ? "all invariants hold" : violations.size() + " violations");
+            DatabaseManager.shutdown();
+            try (var files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+        return violations;
+    }
+
+    // Links agree in both directions, size and tail are right, every id appears once,
+    // and every subtask points at its parent
+    static void checkStructure(DoublyLinkedList<Task> tasks, List<String> violations) {
+        checkList(tasks, null, new HashSet<>(), violations);
+    }
+
+    private static void checkList(NodeList<Task> list, Task parent, Set<String> seen, List<String> violations) {
+        String where = parent == null ? "top-level list" : "subtasks of " + parent.getId();
+        int count = 0;
+        Node<Task> prev = null;
+        for (Node<Task> node = list.getHead(); node != null; node = list.next(node)) {
+            if (node.prev != prev) violations.add(where + ": broken prev link at " + node.data.getId());
+            if (!seen.add(node.data.getId())) violations.add(where + ": task listed twice " + node.data.getId());
+            if (parent != null && !parent.getId().equals(node.data.getParentId())) {
+                violations.add(where + ": subtask " + node.data.getId() + " has parent id " + node.data.getParentId());
+            }
+            checkList(node.data.getLoadedSubtasks(), node.data, seen, violations);
+            prev = node;
+            if (++count > list.size() + 1) {
+                violations.add(where + ": more nodes than size " + list.size() + " (cycle?)");
+                return;
+            }
+        }
+        if (list.getTail() != prev) violations.add(where + ": tail is not the last node");
+        if (count != list.size()) violations.add(where + ": size " + list.size() + " but " + count + " nodes");
+    }
+
+    // No subtask twice, every one under its parent
+    private static void checkSubtasks(Task parent, List<String> violations) {
+        Set<String> seen = new HashSet<>();
+        parent.getLoadedSubtasks().forEach(sub -> {
+            if (!seen.add(sub.getId()) || !parent.getId().equals(sub.getParentId())) {
+                synchronized (violations) {
+                    violations.add("forEachTask: subtasks of " + parent.getId() + " listed " + sub.getId() + " wrongly");
+                }
+            }
+        });
+    }
+
+    static void checkMomentumOrder(DoublyLinkedList<Task> tasks, List<String> violations) {
+        for (Node<Task> node = tasks.getHead(); node != null && node.next != null; node = node.next) {
+            if (node.data.getMomentum() < node.next.data.getMomentum()) {
+                violations.add("momentum order: " + node.data.getId() + " (" + node.data.getMomentum() + ") before "
+                        + node.next.data.getId() + " (" + node.next.data.getMomentum() + ")");
+            }
+        }
+    }
+
+    // After flush() the database has to hold exactly the tasks in memory, with the same values
+    private static void checkDatabase(ConcurrentTodoService service, List<String> violations) {
+        Map<String, Task> stored = new HashMap<>();
+        DatabaseManager.loadAllTasks().forEach(t -> collect(t, stored));
+        Map<String, Task> live = new HashMap<>();
+        service.readTasks(tasks -> tasks.forEach(t -> collect(t, live)));
+        if (stored.size() != live.size()) {
+            violations.add("database has " + stored.size() + " tasks, memory has " + live.size());
+        }
+        for (Task task : live.values()) {
+            Task row = stored.get(task.getId());
+            if (row == null) {
+                violations.add("not in database: " + task.getId());
+            } else if (row.getMomentum() != task.getMomentum() || row.getStatus() != task.getStatus()
+                    || row.getPriority() != task.getPriority()) {
+                violations.add("database differs for " + task.getId() + ": " + row + " vs " + task);
+            }
+        }
+    }
+
+    private static void collect(Task task, Map<String, Task> into) {
+        into.put(task.getId(), task);
+        task.getLoadedSubtasks().forEach(sub -> collect(sub, into));
+    }
+}
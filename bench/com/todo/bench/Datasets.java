@@ -0,0 +1,101 @@
+package com.todo.bench;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded synthetic task data, so every run (and every machine) benchmarks the same inputs.
+ */
+public final class Datasets {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final String[] CATEGORIES = {"Work", "Home", "Study", "Health", "Errands", "Side project"};
+
+    private Datasets() {
+    }
+
+    public static Task task(Random rnd, int n) {
+        LocalDate deadline = rnd.nextInt(4) == 0 ? null : LocalDate.now().plusDays(rnd.nextInt(60) - 10);
+        Task task = new Task("Task " + n, CATEGORIES[rnd.nextInt(CATEGORIES.length)], deadline,
+                PRIORITIES[rnd.nextInt(PRIORITIES.length)]);
+        task.setStatus(STATUSES[rnd.nextInt(STATUSES.length)]);
+        task.setMomentum(rnd.nextInt(120));
+        return task;
+    }
+
+    /**
+     * {@code count} top-level tasks with 0..{@code maxSubtasks} subtasks each.
+     */
+    public static List<Task> tasks(long seed, int count, int maxSubtasks) {
+        Random rnd = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            Task task = task(rnd, n++);
+            int subtasks = maxSubtasks == 0 ? 0 : rnd.nextInt(maxSubtasks + 1);
+            for (int j = 0; j < subtasks; j++) {
+                Task sub = task(rnd, n++);
+                sub.setParentId(task.getId());
+                task.getSubtasks().addLast(sub);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * One task with {@code subtasks} direct children.
+     */
+    public static Task tree(long seed, int subtasks) {
+        Random rnd = new Random(seed);
+        Task root = task(rnd, 0);
+        for (int i = 1; i <= subtasks; i++) {
+            Task sub = task(rnd, i);
+            sub.setParentId(root.getId());
+            root.getSubtasks().addLast(sub);
+        }
+        return root;
+    }
+
+    /**
+     * {@code roots} top-level tasks, each the root of a full tree {@code depth} levels deep
+     * (0 = no subtasks) with {@code fanOut} children per task. Deadlines fall within
+     * +/- {@code deadlineSpreadDays} of today; a quarter of the tasks have none.
+     */
+    public static List<Task> hierarchy(long seed, int roots, int depth, int fanOut, int deadlineSpreadDays) {
+        Random rnd = new Random(seed);
+        List<Task> tasks = new ArrayList<>(roots);
+        int[] n = {0};
+        for (int i = 0; i < roots; i++) {
+            Task root = spreadTask(rnd, n[0]++, deadlineSpreadDays);
+            addChildren(rnd, root, depth, fanOut, deadlineSpreadDays, n);
+            tasks.add(root);
+        }
+        return tasks;
+    }
+
+    private static void addChildren(Random rnd, Task parent, int depth, int fanOut, int spread, int[] n) {
+        if (depth == 0) return;
+        for (int i = 0; i < fanOut; i++) {
+            Task child = spreadTask(rnd, n[0]++, spread);
+            child.setParentId(parent.getId());
+            parent.getSubtasks().addLast(child);
+            addChildren(rnd, child, depth - 1, fanOut, spread, n);
+        }
+    }
+
+    private static Task spreadTask(Random rnd, int n, int spreadDays) {
+        Task task = task(rnd, n);
+        LocalDate deadline = rnd.nextInt(4) == 0 || spreadDays == 0
+                ? null : LocalDate.now().plusDays(rnd.nextInt(2 * spreadDays + 1) - spreadDays);
+        task.setDeadline(deadline);
+        return task;
+    }
+}
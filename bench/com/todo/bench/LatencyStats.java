@@ -0,0 +1,71 @@
+package com.todo.bench;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-operation latency samples (nanoseconds). Each worker thread fills its own instance;
+ * {@link #merge} them at the end. Every sample is kept, so percentiles are exact.
+ */
+public class LatencyStats {
+
+    private final Map<String, long[]> samples = new TreeMap<>();
+    private final Map<String, Integer> counts = new TreeMap<>();
+
+    public void record(String operation, long nanos) {
+        long[] values = samples.get(operation);
+        int count = counts.getOrDefault(operation, 0);
+        if (values == null) {
+            values = new long[1024];
+            samples.put(operation, values);
+        } else if (count == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            samples.put(operation, values);
+        }
+        values[count] = nanos;
+        counts.put(operation, count + 1);
+    }
+
+    public void merge(LatencyStats other) {
+        for (Map.Entry<String, long[]> entry : other.samples.entrySet()) {
+            int count = other.counts.get(entry.getKey());
+            for (int i = 0; i < count; i++) {
+                record(entry.getKey(), entry.getValue()[i]);
+            }
+        }
+    }
+
+    public long total() {
+        long total = 0;
+        for (int count : counts.values()) total += count;
+        return total;
+    }
+
+    /**
+     * Throughput and p50/p99/p99.9/max per operation, plus the overall throughput.
+     */
+    public String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %9s %11s %10s %10s %10s %10s%n",
+                "operation", "count", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<String, long[]> entry : samples.entrySet()) {
+            int count = counts.get(entry.getKey());
+            long[] sorted = Arrays.copyOf(entry.getValue(), count);
+            Arrays.sort(sorted);
+            sb.append(String.format("%-16s %9d %11.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), count, count / seconds,
+                    percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3,
+                    percentile(sorted, 0.999) / 1e3, sorted[count - 1] / 1e3));
+        }
+        sb.append(String.format("%-16s %9d %11.1f   (%.2fs)%n", "total", total(), total() / seconds, seconds));
+        return sb.toString();
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
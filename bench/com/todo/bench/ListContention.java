@@ -0,0 +1,139 @@
+package com.todo.bench;
+
+import com.todo.ds.ConcurrentDoublyLinkedList;
+import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Throughput of ConcurrentDoublyLinkedList against a DoublyLinkedList behind one lock
+ * (what Collections.synchronizedList would do), with 1 to 32 threads sharing one list.
+ *
+ * Every thread runs the same mix: addLast, addFirst, removeNode of a node it added earlier,
+ * find of a value near the front, and now and then a full forEach. Adds and removes balance,
+ * so the list stays around its starting size.
+ *
+ * Usage: java com.todo.bench.ListContention [-threads 1,2,4,8,16,32] [-size 1000] [-ms 1000] [-wi 1] [-seed 7]
+ * Prints ops/s per implementation and thread count, and the speed-up of the lock-free list.
+ */
+public class ListContention {
+
+    // The operations being measured, over either implementation
+    interface SharedList {
+        Node<Integer> addLast(Integer value);
+        Node<Integer> addFirst(Integer value);
+        void removeNode(Node<Integer> node);
+        Node<Integer> find(Predicate<Integer> predicate);
+        void forEach(Consumer<Integer> action);
+    }
+
+    static SharedList lockFree() {
+        ConcurrentDoublyLinkedList<Integer> list = new ConcurrentDoublyLinkedList<>();
+        return new SharedList() {
+            public Node<Integer> addLast(Integer value) { return list.addLast(value); }
+            public Node<Integer> addFirst(Integer value) { return list.addFirst(value); }
+            public void removeNode(Node<Integer> node) { list.removeNode(node); }
+            public Node<Integer> find(Predicate<Integer> predicate) { return list.find(predicate); }
+            public void forEach(Consumer<Integer> action) { list.forEach(action); }
+        };
+    }
+
+    static SharedList synchronizedWrapper() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        return new SharedList() {
+            public synchronized Node<Integer> addLast(Integer value) { return list.addLast(value); }
+            public synchronized Node<Integer> addFirst(Integer value) { return list.addFirst(value); }
+            public synchronized void removeNode(Node<Integer> node) { list.removeNode(node); }
+            public synchronized Node<Integer> find(Predicate<Integer> predicate) { return list.find(predicate); }
+            public synchronized void forEach(Consumer<Integer> action) { list.forEach(action); }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = LoadGenerator.options(args);
+        int size = Integer.parseInt(opts.getOrDefault("size", "1000"));
+        long millis = Long.parseLong(opts.getOrDefault("ms", "1000"));
+        int warmups = Integer.parseInt(opts.getOrDefault("wi", "1"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "7"));
+        List<Integer> threadCounts = new ArrayList<>();
+        for (String t : opts.getOrDefault("threads", "1,2,4,8,16,32").split(",")) {
+            threadCounts.add(Integer.parseInt(t.trim()));
+        }
+
+        System.out.printf("list size %d, %d ms per run, %d available processors%n",
+                size, millis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %18s %18s %9s%n", "threads", "lock-free ops/s", "synchronized ops/s", "speed-up");
+        for (int threads : threadCounts) {
+            for (int i = 0; i < warmups; i++) {
+                run(lockFree(), threads, size, millis, seed);
+                run(synchronizedWrapper(), threads, size, millis, seed);
+            }
+            double lockFree = run(lockFree(), threads, size, millis, seed);
+            double locked = run(synchronizedWrapper(), threads, size, millis, seed);
+            System.out.printf("%-8d %18.0f %18.0f %8.2fx%n", threads, lockFree, locked, lockFree / locked);
+        }
+    }
+
+    // Operations per second over all threads
+    static double run(SharedList list, int threads, int size, long millis, long seed) throws InterruptedException {
+        for (int i = 0; i < size; i++) list.addLast(i);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] ops = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int slot = t;
+            Random rnd = new Random(seed + t);
+            Thread worker = new Thread(() -> {
+                List<Node<Integer>> mine = new ArrayList<>();
+                long[] sink = {0};
+                long count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    int op = rnd.nextInt(100);
+                    if (op < 20) {
+                        mine.add(list.addLast(size + rnd.nextInt(size)));
+                    } else if (op < 35) {
+                        mine.add(list.addFirst(size + rnd.nextInt(size)));
+                    } else if (op < 70) {
+                        if (!mine.isEmpty()) list.removeNode(mine.remove(rnd.nextInt(mine.size())));
+                    } else if (op < 99) {
+                        int target = rnd.nextInt(32);
+                        Node<Integer> found = list.find(v -> v == target);
+                        if (found != null) sink[0] += found.data;
+                    } else {
+                        list.forEach(v -> sink[0] += v);
+                    }
+                    count++;
+                }
+                ops[slot] = count + (sink[0] == 42 ? 1 : 0);
+            }, "contention-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread worker : workers) worker.join();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        long total = 0;
+        for (long n : ops) total += n;
+        return total / seconds;
+    }
+}
@@ -0,0 +1,306 @@
+package com.todo.bench;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+import com.todo.service.ConcurrentTodoService;
+import com.todo.service.DatabaseManager;
+import com.todo.service.TodoService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives TodoService headless with a synthetic workload and reports throughput and latency.
+ *
+ * Usage: java com.todo.bench.LoadGenerator [options]
+ *   -roots 1000        top-level tasks to seed
+ *   -depth 1           subtask levels under each root (0 = none)
+ *   -fanout 3          subtasks per task
+ *   -spread 30         deadlines fall within +/- this many days
+ *   -threads 4         worker threads
+ *   -ops 10000         operations per thread
+ *   -mix add=15,subtask=10,work=35,status=25,delete=5,undo=5,momentum=1
+ *   -seed 42
+ *   -db file.db        database to use (default: a scratch file, deleted afterwards)
+ *   -record log        also record the generated session for {@link SessionReplay}
+ *   -service plain     plain: TodoService behind one global lock (it is single-threaded);
+ *                      concurrent: ConcurrentTodoService called directly from every thread
+ *
+ * Latencies include any wait for locks, i.e. what a caller would see.
+ */
+public class LoadGenerator {
+
+    private static final String[] OPERATIONS = {"add", "subtask", "work", "status", "delete", "undo", "momentum"};
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final TodoService service;
+    private final boolean serialize;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    // Ids the workers pick from; thread-safe on their own
+    private final IdPool topLevel = new IdPool();
+    private final IdPool all = new IdPool();
+    private final AtomicInteger pendingUndos = new AtomicInteger();
+
+    LoadGenerator(TodoService service, Map<String, Integer> mix) {
+        this.service = service;
+        this.serialize = !(service instanceof ConcurrentTodoService);
+        this.mix = mix;
+        int total = 0;
+        for (int weight : mix.values()) total += weight;
+        if (total <= 0) throw new IllegalArgumentException("The operation mix needs a positive weight");
+        this.totalWeight = total;
+
+        service.getTasks().forEach(t -> {
+            topLevel.add(t.getId());
+            addTree(t);
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = options(args);
+        int roots = Integer.parseInt(opts.getOrDefault("roots", "1000"));
+        int depth = Integer.parseInt(opts.getOrDefault("depth", "1"));
+        int fanOut = Integer.parseInt(opts.getOrDefault("fanout", "3"));
+        int spread = Integer.parseInt(opts.getOrDefault("spread", "30"));
+        int threads = Integer.parseInt(opts.getOrDefault("threads", "4"));
+        int opsPerThread = Integer.parseInt(opts.getOrDefault("ops", "10000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+        Map<String, Integer> mix = parseMix(opts.getOrDefault("mix",
+                "add=15,subtask=10,work=35,status=25,delete=5,undo=5,momentum=1"));
+
+        Path scratch = null;
+        Path db;
+        if (opts.containsKey("db")) {
+            db = Path.of(opts.get("db"));
+        } else {
+            scratch = Files.createTempDirectory("todo-load");
+            db = scratch.resolve("load.db");
+        }
+        DatabaseManager.useDatabase("jdbc:sqlite:" + db.toAbsolutePath());
+        DatabaseManager.initializeDatabase();
+
+        System.out.printf("Seeding %d roots, depth %d, fan-out %d ...%n", roots, depth, fanOut);
+        for (Task root : Datasets.hierarchy(seed, roots, depth, fanOut, spread)) {
+            DatabaseManager.saveTaskTree(root, null);
+        }
+
+        PrintStream console = System.out;
+        TodoService service = createService(opts.getOrDefault("service", "plain"));
+        if (opts.containsKey("record")) {
+            service.startRecording(Path.of(opts.get("record")));
+        }
+        LoadGenerator generator = new LoadGenerator(service, mix);
+
+        console.printf("Running %d threads x %d ops, mix %s%n", threads, opsPerThread, mix);
+        // The service reports every call on the console; keep that out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        LatencyStats stats = new LatencyStats();
+        long elapsed;
+        try {
+            List<Thread> workers = new ArrayList<>();
+            List<LatencyStats> perThread = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < threads; i++) {
+                LatencyStats local = new LatencyStats();
+                perThread.add(local);
+                Random rnd = new Random(seed + 1 + i);
+                Thread worker = new Thread(() -> {
+                    for (int n = 0; n < opsPerThread; n++) {
+                        generator.step(rnd, local);
+                    }
+                }, "load-" + i);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) worker.join();
+            elapsed = System.nanoTime() - start;
+            perThread.forEach(stats::merge);
+
+            long flushStart = System.nanoTime();
+            service.flush();
+            stats.record("(final flush)", System.nanoTime() - flushStart);
+        } finally {
+            System.setOut(console);
+        }
+
+        System.out.print(stats.report(elapsed));
+        service.stopRecording();
+        DatabaseManager.shutdown();
+        if (scratch != null) {
+            Files.deleteIfExists(db);
+            Files.deleteIfExists(Path.of(db + "-wal"));
+            Files.deleteIfExists(Path.of(db + "-shm"));
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    static TodoService createService(String kind) {
+        switch (kind) {
+            case "plain": return new TodoService();
+            case "concurrent": return new ConcurrentTodoService();
+            default: throw new IllegalArgumentException("Unknown service " + kind);
+        }
+    }
+
+    /**
+     * Pick and run one operation from the mix, recording its latency.
+     */
+    void step(Random rnd, LatencyStats stats) {
+        String operation = pick(rnd);
+        long start = System.nanoTime();
+        if (serialize) {
+            synchronized (service) {
+                run(operation, rnd);
+            }
+        } else {
+            run(operation, rnd);
+        }
+        stats.record(operation, System.nanoTime() - start);
+    }
+
+    private String pick(Random rnd) {
+        int r = rnd.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            r -= entry.getValue();
+            if (r < 0) return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    private void run(String operation, Random rnd) {
+        switch (operation) {
+            case "add": {
+                Task task = service.addTask("Load " + rnd.nextInt(1_000_000), "Load", deadline(rnd), priority(rnd));
+                topLevel.add(task.getId());
+                all.add(task.getId());
+                break;
+            }
+            case "subtask": {
+                String parent = topLevel.random(rnd);
+                if (parent == null) return;
+                Task sub = service.addSubtask(parent, "Sub " + rnd.nextInt(1_000_000), deadline(rnd), priority(rnd));
+                if (sub != null) all.add(sub.getId());
+                break;
+            }
+            case "work": {
+                String id = all.random(rnd);
+                if (id != null) service.workOnTask(id);
+                break;
+            }
+            case "status": {
+                String id = all.random(rnd);
+                if (id != null) service.updateTaskStatus(id, STATUSES[rnd.nextInt(STATUSES.length)]);
+                break;
+            }
+            case "delete": {
+                String id = topLevel.random(rnd);
+                if (id == null) return;
+                Task deleted = service.deleteTaskById(id);
+                if (deleted != null) {
+                    topLevel.remove(deleted.getId());
+                    removeTree(deleted);
+                    pendingUndos.incrementAndGet();
+                }
+                break;
+            }
+            case "undo": {
+                if (pendingUndos.get() == 0) return;
+                Task restored = service.undoDelete();
+                if (restored != null) {
+                    topLevel.add(restored.getId());
+                    if (serialize) {
+                        addTree(restored);
+                    } else {
+                        // Other threads may already be adding subtasks to it
+                        ((ConcurrentTodoService) service).readTasks(tasks -> addTree(restored));
+                    }
+                    pendingUndos.decrementAndGet();
+                }
+                break;
+            }
+            case "momentum":
+                service.updateMomentum();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private void addTree(Task task) {
+        all.add(task.getId());
+        task.getLoadedSubtasks().forEach(this::addTree);
+    }
+
+    private void removeTree(Task task) {
+        all.remove(task.getId());
+        task.getLoadedSubtasks().forEach(this::removeTree);
+    }
+
+    private static LocalDate deadline(Random rnd) {
+        return rnd.nextInt(4) == 0 ? null : LocalDate.now().plusDays(rnd.nextInt(40) - 10);
+    }
+
+    private static Priority priority(Random rnd) {
+        return PRIORITIES[rnd.nextInt(PRIORITIES.length)];
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("-")) throw new IllegalArgumentException("Expected an option, got " + args[i]);
+            opts.put(args[i].substring(1), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            if (!List.of(OPERATIONS).contains(kv[0])) throw new IllegalArgumentException("Unknown operation " + kv[0]);
+            int weight = Integer.parseInt(kv[1]);
+            if (weight > 0) mix.put(kv[0], weight);
+        }
+        return mix;
+    }
+
+    /**
+     * Ids with O(1) add, remove and uniform random pick. An id may briefly outlive its task
+     * (another thread deleted it); the service then just reports "not found".
+     */
+    private static class IdPool {
+        private final List<String> ids = new ArrayList<>();
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        synchronized void add(String id) {
+            if (positions.putIfAbsent(id, ids.size()) == null) ids.add(id);
+        }
+
+        synchronized void remove(String id) {
+            Integer pos = positions.remove(id);
+            if (pos == null) return;
+            String last = ids.remove(ids.size() - 1);
+            if (pos < ids.size()) {
+                ids.set(pos, last);
+                positions.put(last, pos);
+            }
+        }
+
+        synchronized String random(Random rnd) {
+            return ids.isEmpty() ? null : ids.get(rnd.nextInt(ids.size()));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.todo.bench;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+import com.todo.service.DatabaseManager;
+import com.todo.service.SessionRecorder;
+import com.todo.service.TodoService;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a session recorded with -Dtodo.recordSession (or LoadGenerator -record) and reports
+ * per-operation latency.
+ *
+ * Usage: java com.todo.bench.SessionReplay session.log [-timed true]
+ * The replay starts from a copy of the snapshot taken when recording began
+ * ({@code session.log.db}), so the recorded ids resolve to the same tasks. Tasks created during
+ * the session get new ids; recorded ids are mapped onto them. With {@code -timed true} the
+ * original gaps between operations are kept, otherwise operations run back to back.
+ * Prints a checksum of the final task state: two replays of one log print the same one.
+ */
+public class SessionReplay {
+
+    private final TodoService service;
+    // recorded id -> id of the task this replay created in its place
+    private final Map<String, String> ids = new HashMap<>();
+
+    SessionReplay(TodoService service) {
+        this.service = service;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: SessionReplay session.log [-timed true]");
+            System.exit(2);
+        }
+        Path log = Path.of(args[0]);
+        boolean timed = Boolean.parseBoolean(LoadGenerator.options(
+                Arrays.copyOfRange(args, 1, args.length)).getOrDefault("timed", "false"));
+
+        Path scratch = Files.createTempDirectory("todo-replay");
+        Path db = scratch.resolve("replay.db");
+        Files.copy(SessionRecorder.snapshotPathFor(log), db);
+        DatabaseManager.useDatabase("jdbc:sqlite:" + db.toAbsolutePath());
+
+        PrintStream console = System.out;
+        TodoService service = new TodoService();
+        SessionReplay replay = new SessionReplay(service);
+        LatencyStats stats = new LatencyStats();
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split("\t", -1);
+                if (timed) {
+                    long due = start + Long.parseLong(fields[0]);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                }
+                long opStart = System.nanoTime();
+                replay.apply(fields);
+                stats.record(fields[1], System.nanoTime() - opStart);
+            }
+            long flushStart = System.nanoTime();
+            service.flush();
+            stats.record("(final flush)", System.nanoTime() - flushStart);
+        } finally {
+            System.setOut(console);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.print(stats.report(elapsed));
+        System.out.printf("final state: %d top-level tasks, checksum %08x%n", service.getTasks().size(), replay.checksum());
+        DatabaseManager.shutdown();
+        Files.deleteIfExists(db);
+        Files.deleteIfExists(Path.of(db + "-wal"));
+        Files.deleteIfExists(Path.of(db + "-shm"));
+        Files.deleteIfExists(scratch);
+    }
+
+    void apply(String[] fields) {
+        SessionRecorder.Operation operation = SessionRecorder.Operation.valueOf(fields[1]);
+        switch (operation) {
+            case ADD_TASK: {
+                Task task = service.addTask(arg(fields, 3), arg(fields, 4), date(arg(fields, 5)), Priority.valueOf(arg(fields, 6)));
+                ids.put(arg(fields, 2), task.getId());
+                break;
+            }
+            case ADD_SUBTASK: {
+                Task sub = service.addSubtask(id(fields, 3), arg(fields, 4), date(arg(fields, 5)), Priority.valueOf(arg(fields, 6)));
+                if (sub != null) ids.put(arg(fields, 2), sub.getId());
+                break;
+            }
+            case DELETE:
+                service.deleteTaskById(id(fields, 2));
+                break;
+            case UNDO_DELETE:
+                service.undoDelete();
+                break;
+            case UPDATE_STATUS:
+                service.updateTaskStatus(id(fields, 2), Status.valueOf(arg(fields, 3)));
+                break;
+            case WORK:
+                service.workOnTask(id(fields, 2));
+                break;
+            case UPDATE_MOMENTUM:
+                service.updateMomentum();
+                break;
+            case AUTO_PROMOTE:
+                service.autoPromotePriorities();
+                break;
+        }
+    }
+
+    // Order-sensitive hash over every loaded task's name, status, priority and momentum.
+    // Ids are left out: tasks created by the replay get fresh ones. Enums hash by name, since
+    // their identity hash codes differ from one JVM to the next.
+    int checksum() {
+        int[] hash = {17};
+        service.getTasks().forEach(t -> hash[0] = 31 * hash[0] + hashTree(t));
+        return hash[0];
+    }
+
+    private static int hashTree(Task task) {
+        int[] hash = {Objects.hash(task.getName(), task.getStatus().name(), task.getPriority().name(), task.getMomentum())};
+        task.getLoadedSubtasks().forEach(sub -> hash[0] = 31 * hash[0] + hashTree(sub));
+        return hash[0];
+    }
+
+    private String id(String[] fields, int index) {
+        String recorded = arg(fields, index);
+        return ids.getOrDefault(recorded, recorded);
+    }
+
+    private static String arg(String[] fields, int index) {
+        return SessionRecorder.unescape(fields[index]);
+    }
+
+    private static LocalDate date(String value) {
+        return value == null ? null : LocalDate.parse(value);
+    }
+}
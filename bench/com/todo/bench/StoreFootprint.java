@@ -0,0 +1,115 @@
+package com.todo.bench;
+
+import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.NodeList;
+import com.todo.model.Task;
+import com.todo.service.DatabaseManager;
+import com.todo.store.ColumnarTaskStore;
+import com.todo.store.OffHeapTaskStore;
+import com.todo.store.TaskStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Heap retained per task: Task objects from DatabaseManager.loadAllTasks() against a
+ * TaskStore filled by loadAllTasks(store), from the same scratch database. The off-heap store
+ * is loaded into a mapped file, so it also reports the file size and how long reopening it
+ * takes (a warm start).
+ *
+ * Usage: java com.todo.bench.StoreFootprint [-roots 100000] [-depth 1] [-fanout 3] [-seed 42]
+ * Run with a heap big enough for the Task objects, e.g. -Xmx2g.
+ */
+public class StoreFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = LoadGenerator.options(args);
+        int roots = Integer.parseInt(opts.getOrDefault("roots", "100000"));
+        int depth = Integer.parseInt(opts.getOrDefault("depth", "1"));
+        int fanOut = Integer.parseInt(opts.getOrDefault("fanout", "3"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+
+        Path dir = Files.createTempDirectory("todo-footprint");
+        Path db = dir.resolve("footprint.db");
+        try {
+            DatabaseManager.useDatabase("jdbc:sqlite:" + db.toAbsolutePath());
+            DatabaseManager.initializeDatabase();
+            for (Task root : Datasets.hierarchy(seed, roots, depth, fanOut, 30)) {
+                DatabaseManager.saveTaskTree(root, null);
+            }
+
+            int[] count = {0};
+            long objects = retained(() -> {
+                DoublyLinkedList<Task> tasks = DatabaseManager.loadAllTasks();
+                count[0] = countTree(tasks);
+                return tasks;
+            });
+            long columnar = retained(() -> {
+                TaskStore store = new ColumnarTaskStore();
+                DatabaseManager.loadAllTasks(store);
+                return store;
+            });
+            Path file = dir.resolve("tasks.bin");
+            long offHeap = retained(() -> {
+                try (OffHeapTaskStore store = OffHeapTaskStore.open(file)) {
+                    DatabaseManager.loadAllTasks(store);
+                    return store;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long openStart = System.nanoTime();
+            int reopened;
+            try (OffHeapTaskStore store = OffHeapTaskStore.open(file)) {
+                reopened = store.size();
+            }
+            long openNanos = System.nanoTime() - openStart;
+            long fileBytes = Files.size(file) + Files.size(Path.of(file + ".strings"));
+
+            System.out.printf("%d tasks%n", count[0]);
+            System.out.printf("Task objects      %,14d bytes  %6.1f bytes/task%n", objects, (double) objects / count[0]);
+            System.out.printf("ColumnarTaskStore %,14d bytes  %6.1f bytes/task  (%.1fx smaller)%n",
+                    columnar, (double) columnar / count[0], (double) objects / columnar);
+            System.out.printf("OffHeapTaskStore  %,14d bytes  %6.1f bytes/task  (heap; %,d bytes mapped)%n",
+                    offHeap, (double) offHeap / count[0], fileBytes);
+            System.out.printf("warm start: reopened %d tasks in %.2f ms%n", reopened, openNanos / 1e6);
+        } finally {
+            DatabaseManager.shutdown();
+            try (var files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // Heap still in use after a full GC while the loaded structure is reachable, minus before
+    private static long retained(Supplier<Object> load) throws InterruptedException {
+        long before = usedAfterGc();
+        Object kept = load.get();
+        long after = usedAfterGc();
+        if (kept.hashCode() == 42) System.out.print(""); // keep it reachable until measured
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static int countTree(NodeList<Task> tasks) {
+        int n = 0;
+        for (Task t : tasks) {
+            n += 1 + countTree(t.getLoadedSubtasks());
+        }
+        return n;
+    }
+}
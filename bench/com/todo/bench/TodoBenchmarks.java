@@ -0,0 +1,567 @@
+package com.todo.bench;
+
+import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.Node;
+import com.todo.model.Status;
+import com.todo.model.Task;
+import com.todo.service.DatabaseManager;
+import com.todo.service.LiveQuery;
+import com.todo.service.MomentumTracker;
+import com.todo.service.TaskIndex;
+import com.todo.service.TaskQuery;
+import com.todo.service.TodoService;
+import com.todo.service.WriteBehindQueue;
+import com.todo.store.ColumnarTaskStore;
+import com.todo.ui.TaskCellRenderer;
+import com.todo.ui.TaskUIItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.CellRendererPane;
+import javax.swing.JList;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmarks for the data structures, momentum ordering, lookups, queries, rendering and
+ * persistence. Benchmark names start with their area (dll, momentum, bulk, query, store, ui,
+ * index, db), so a regex such as {@code TodoBenchmarks.bulk} selects one area.
+ *
+ * Run through Maven (see pom.xml), e.g.
+ *   mvn -B test-compile exec:exec@jmh -Djmh.args="TodoBenchmarks.dll -prof gc -rf json -rff results.json"
+ * and compare two JSON result files with {@link BenchCompare}. {@code -prof gc} adds the
+ * allocation per call (gc.alloc.rate.norm, B/op).
+ *
+ * Scores are per call. Where a benchmark has a size, a call is one pass over that many tasks,
+ * except dll.find*, index.findByPrefix and query.liveChange, which look up or change one task.
+ * Database benchmarks run against scratch SQLite files in a temp directory, never smart_todo.db.
+ * The bulk* benchmarks run each pass sequentially and in parallel; to find where parallel
+ * starts to pay off (the todo.parallelThreshold setting) run them over a finer size ladder:
+ *   -Djmh.args="TodoBenchmarks.bulk -p size=1000,2000,5000,10000,20000,50000,100000 -prof gc"
+ * On a single CPU there is no crossover: parallel is slower at every size (see
+ * TodoService.DEFAULT_PARALLEL_THRESHOLD).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TodoBenchmarks {
+
+    private static final long SEED = 42;
+    private static final PrintStream MUTED = new PrintStream(OutputStream.nullOutputStream());
+
+    /**
+     * Mutes System.out for the trial: the service layer reports to the console, and a
+     * benchmark should measure the work, not the terminal.
+     */
+    @State(Scope.Benchmark)
+    public abstract static class Quiet {
+        private PrintStream console;
+
+        @Setup(Level.Trial)
+        public void mute() {
+            console = System.out;
+            System.setOut(MUTED);
+        }
+
+        @TearDown(Level.Trial)
+        public void unmute() {
+            System.setOut(console);
+        }
+    }
+
+    // ---- DoublyLinkedList ----
+
+    @State(Scope.Benchmark)
+    public static class ListState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        List<Task> data;
+        final DoublyLinkedList<Task> full = new DoublyLinkedList<>();
+        // Lookup targets, cycled through so picking one costs (and allocates) nothing
+        final String[] targets = new String[1024];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            data = Datasets.tasks(SEED, size, 0);
+            data.forEach(full::addLast);
+            Random rnd = new Random(SEED);
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = data.get(rnd.nextInt(size)).getId();
+            }
+        }
+
+        String nextTarget() {
+            next = (next + 1) & (targets.length - 1);
+            return targets[next];
+        }
+    }
+
+    @Benchmark
+    public int dllAddLast(ListState s) {
+        DoublyLinkedList<Task> list = new DoublyLinkedList<>();
+        for (Task t : s.data) list.addLast(t);
+        return list.size();
+    }
+
+    // A full list and its nodes in random order, refilled before every call (not timed)
+    @State(Scope.Benchmark)
+    public static class RemovalState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        List<Task> data;
+        DoublyLinkedList<Task> list;
+        final List<Node<Task>> nodes = new ArrayList<>();
+        final Random rnd = new Random(SEED);
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            data = Datasets.tasks(SEED, size, 0);
+        }
+
+        @Setup(Level.Invocation)
+        public void refill() {
+            list = new DoublyLinkedList<>();
+            nodes.clear();
+            for (Task t : data) nodes.add(list.addLast(t));
+            Collections.shuffle(nodes, rnd);
+        }
+    }
+
+    @Benchmark
+    public int dllRemoveNode(RemovalState s) {
+        for (Node<Task> n : s.nodes) s.list.removeNode(n);
+        return s.list.size();
+    }
+
+    @Benchmark
+    public Node<Task> dllFind(ListState s) {
+        String target = s.nextTarget();
+        return s.full.find(t -> t.getId().equals(target));
+    }
+
+    @Benchmark
+    public long dllForEach(ListState s) {
+        long[] sum = {0};
+        s.full.forEach(t -> sum[0] += t.getMomentum());
+        return sum[0];
+    }
+
+    // The allocation-free forms. With -prof gc all three stay under 1 B/op at every size (what
+    // is left is JMH's own bookkeeping spread over the pass); dllFind's capturing lambda is
+    // scalar-replaced at 1k and 10k but shows up as 16 B/op (one lambda per call) at 100k
+    @Benchmark
+    public Node<Task> dllFindWithArg(ListState s) {
+        return s.full.find((t, id) -> t.getId().equals(id), s.nextTarget());
+    }
+
+    @Benchmark
+    public long dllIterator(ListState s) {
+        long sum = 0;
+        for (Task t : s.full) sum += t.getMomentum();
+        return sum;
+    }
+
+    @Benchmark
+    public long dllSumInt(ListState s) {
+        return s.full.sumInt(Task::getMomentum);
+    }
+
+    // ---- MomentumTracker ----
+
+    @State(Scope.Benchmark)
+    public static class MomentumState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        final DoublyLinkedList<Task> list = new DoublyLinkedList<>();
+        final DoublyLinkedList<Task> withSubtasks = new DoublyLinkedList<>();
+        final MomentumTracker tracker = new MomentumTracker();
+        final MomentumTracker decay = new MomentumTracker();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Datasets.tasks(SEED, size, 0).forEach(list::addLast);
+            Datasets.tasks(SEED, size, 3).forEach(withSubtasks::addLast);
+            decay.applyDecay(withSubtasks); // first pass only records interaction times
+        }
+    }
+
+    // Interactions between two reorders touch a handful of tasks, not the whole list
+    @State(Scope.Benchmark)
+    public static class ReorderState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        List<Task> data;
+        final DoublyLinkedList<Task> list = new DoublyLinkedList<>();
+        final MomentumTracker tracker = new MomentumTracker();
+        final Random rnd = new Random(SEED);
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            data = Datasets.tasks(SEED, size, 0);
+            data.forEach(list::addLast);
+            tracker.track(list);
+        }
+
+        @Setup(Level.Invocation)
+        public void touch() {
+            for (int i = Math.max(1, size / 100); i > 0; i--) {
+                data.get(rnd.nextInt(size)).setMomentum(rnd.nextInt(120));
+            }
+        }
+    }
+
+    @Benchmark
+    public Node<Task> momentumReorderByMomentum(ReorderState s) {
+        s.tracker.reorderByMomentum(s.list);
+        return s.list.getHead();
+    }
+
+    @Benchmark
+    public Node<Task> momentumTrack(MomentumState s) {
+        s.tracker.track(s.list);
+        return s.list.getHead();
+    }
+
+    @Benchmark
+    public Node<Task> momentumApplyDecay(MomentumState s) {
+        s.decay.applyDecay(s.withSubtasks);
+        return s.withSubtasks.getHead();
+    }
+
+    // ---- bulk passes, sequential vs parallel ----
+
+    private static int thresholdFor(String mode) {
+        return mode.equals("parallel") ? 1 : Integer.MAX_VALUE;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BulkState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+        @Param({"sequential", "parallel"})
+        public String mode;
+
+        final DoublyLinkedList<Task> list = new DoublyLinkedList<>();
+        final MomentumTracker tracker = new MomentumTracker();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Datasets.tasks(SEED, size, 3).forEach(list::addLast);
+            tracker.setParallelThreshold(thresholdFor(mode));
+            tracker.applyDecay(list); // first pass only records interaction times
+        }
+    }
+
+    @Benchmark
+    public Node<Task> bulkApplyDecay(BulkState s) {
+        s.tracker.applyDecay(s.list);
+        return s.list.getHead();
+    }
+
+    @Benchmark
+    public String bulkInsights(BulkState s) {
+        return s.tracker.showInsights(s.list);
+    }
+
+    // autoPromotePriorities needs a whole service, so it runs over a scratch database
+    @State(Scope.Benchmark)
+    public static class PromotionState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+        @Param({"sequential", "parallel"})
+        public String mode;
+
+        Path dir;
+        TodoService service;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("todo-bench");
+            DatabaseManager.useDatabase("jdbc:sqlite:" + dir.resolve("promote.db"));
+            DatabaseManager.initializeDatabase();
+            DatabaseManager.saveTasks(flatten(Datasets.hierarchy(SEED, size, 1, 3, 30)));
+            service = new TodoService(WriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MS, WriteBehindQueue.DEFAULT_CAPACITY);
+            service.setParallelThreshold(thresholdFor(mode));
+            service.autoPromotePriorities(); // promotes once; later passes only scan
+            service.flush();
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() throws IOException {
+            service.shutdown();
+            DatabaseManager.shutdown();
+            deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public String bulkAutoPromote(PromotionState s) {
+        return s.service.autoPromotePriorities();
+    }
+
+    // ---- queries ----
+
+    // One task's momentum changes under a filtered, sorted result: patch the live result
+    // versus running the query again over every task
+    @State(Scope.Benchmark)
+    public static class QueryState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        List<Task> all;
+        final TaskQuery query = TaskQuery.ALL.withText("task 1")
+                .withStatus(Status.PENDING, Status.IN_PROGRESS)
+                .sortedBy(TaskQuery.SortField.MOMENTUM, true);
+        final LiveQuery live = new LiveQuery();
+        final Random rnd = new Random(SEED);
+
+        @Setup(Level.Trial)
+        public void setup() {
+            all = flatten(Datasets.tasks(SEED, size, 2));
+            live.reset(query, all);
+        }
+
+        Task changeOne() {
+            Task task = all.get(rnd.nextInt(all.size()));
+            task.setMomentum(rnd.nextInt(120));
+            return task;
+        }
+    }
+
+    @Benchmark
+    public int queryLiveChange(QueryState s) {
+        s.live.changed(s.changeOne());
+        return s.live.size();
+    }
+
+    @Benchmark
+    public int queryRerun(QueryState s) {
+        s.changeOne();
+        s.live.reset(s.query, s.all);
+        return s.live.size();
+    }
+
+    // ---- the same passes over a ColumnarTaskStore, one loop over primitive columns ----
+
+    @State(Scope.Benchmark)
+    public static class StoreState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        ColumnarTaskStore store;
+        final MomentumTracker tracker = new MomentumTracker();
+        final LocalDate today = LocalDate.now();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            store = new ColumnarTaskStore(size * 4);
+            for (Task t : Datasets.tasks(SEED, size, 3)) store.addTree(t);
+            tracker.applyDecay(store); // first pass only stamps interaction times
+            store.promoteByDeadline(today); // promotes once; later passes only scan
+        }
+    }
+
+    @Benchmark
+    public int storeApplyDecay(StoreState s) {
+        return s.tracker.applyDecay(s.store);
+    }
+
+    @Benchmark
+    public int storePromoteByDeadline(StoreState s) {
+        return s.store.promoteByDeadline(s.today);
+    }
+
+    // ---- Swing cell rendering (runs headless) ----
+
+    // A screenful of task rows per call, so B/op divided by ROWS_PER_SCREEN is the garbage per cell
+    static final int ROWS_PER_SCREEN = 40;
+
+    @State(Scope.Benchmark)
+    public static class CellState extends Quiet {
+        final List<TaskUIItem> items = new ArrayList<>();
+        final JList<TaskUIItem> list = new JList<>();
+        final TaskCellRenderer renderer = new TaskCellRenderer();
+        final CellRendererPane pane = new CellRendererPane();
+        Dimension cell;
+        int width;
+        BufferedImage canvas;
+        Graphics2D g;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            for (Task t : Datasets.tasks(SEED, 1_000, 2)) {
+                items.add(new TaskUIItem(t, false));
+                for (Task st : t.getSubtasks()) items.add(new TaskUIItem(st, true));
+            }
+            list.add(pane);
+            cell = renderer.getListCellRendererComponent(list, items.get(0), 0, false, false).getPreferredSize();
+            width = Math.max(cell.width, 600);
+            canvas = new BufferedImage(width, cell.height, BufferedImage.TYPE_INT_ARGB);
+            g = canvas.createGraphics();
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            g.dispose();
+        }
+
+        Component render(int row) {
+            next = (next + 1) % items.size();
+            return renderer.getListCellRendererComponent(list, items.get(next), next, row == 3, false);
+        }
+    }
+
+    @Benchmark
+    public void uiRenderCell(CellState s, Blackhole bh) {
+        for (int i = 0; i < ROWS_PER_SCREEN; i++) {
+            bh.consume(s.render(i));
+        }
+    }
+
+    // The same plus laying the cell out and painting it, what BasicListUI does per visible row
+    @Benchmark
+    public int uiPaintCell(CellState s) {
+        for (int i = 0; i < ROWS_PER_SCREEN; i++) {
+            s.pane.paintComponent(s.g, s.render(i), s.list, 0, 0, s.width, s.cell.height, true);
+        }
+        return s.canvas.getRGB(0, 0);
+    }
+
+    // ---- id prefix lookups (what TodoService.findTaskByIdPrefix resolves through) ----
+
+    @State(Scope.Benchmark)
+    public static class IndexState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        final TaskIndex index = new TaskIndex();
+        final String[] prefixes = new String[1024];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            List<Task> data = Datasets.tasks(SEED, size, 3);
+            DoublyLinkedList<Task> list = new DoublyLinkedList<>();
+            data.forEach(t -> index.addTree(list.addLast(t), null));
+            Random rnd = new Random(SEED);
+            for (int i = 0; i < prefixes.length; i++) {
+                prefixes[i] = data.get(rnd.nextInt(size)).getId().substring(0, 8);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Task> indexFindByPrefix(IndexState s) {
+        s.next = (s.next + 1) & (s.prefixes.length - 1);
+        return s.index.findByPrefix(s.prefixes[s.next], 2, false);
+    }
+
+    // ---- DatabaseManager ----
+
+    // One task with this many subtasks, saved as one transaction per call
+    @State(Scope.Benchmark)
+    public static class SaveState extends Quiet {
+        @Param({"0", "10", "100"})
+        public int subtasks;
+
+        Path dir;
+        Task tree;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("todo-bench");
+            DatabaseManager.useDatabase("jdbc:sqlite:" + dir.resolve("writes.db"));
+            DatabaseManager.initializeDatabase();
+            tree = Datasets.tree(SEED, subtasks);
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() throws IOException {
+            DatabaseManager.shutdown();
+            deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public boolean dbSaveTaskTree(SaveState s) {
+        return DatabaseManager.saveTaskTree(s.tree, null).isCommitted();
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadState extends Quiet {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            dir = Files.createTempDirectory("todo-bench");
+            DatabaseManager.useDatabase("jdbc:sqlite:" + dir.resolve("load.db"));
+            DatabaseManager.initializeDatabase();
+            DatabaseManager.saveTasks(flatten(Datasets.tasks(SEED, size, 3)));
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() throws IOException {
+            DatabaseManager.shutdown();
+            deleteRecursively(dir);
+        }
+    }
+
+    @Benchmark
+    public int dbLoadAllTasks(LoadState s) {
+        return DatabaseManager.loadAllTasks().size();
+    }
+
+    // Parents before their subtasks, as the foreign key needs
+    private static List<Task> flatten(List<Task> roots) {
+        List<Task> all = new ArrayList<>();
+        for (Task root : roots) {
+            all.add(root);
+            root.getSubtasks().forEach(all::add);
+        }
+        return all;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
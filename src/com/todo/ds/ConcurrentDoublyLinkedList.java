@@ -0,0 +1,310 @@
+package com.todo.ds;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Lock-free NodeList for lists that several threads append to, remove from and read at the
+ * same time, in the style of java.util.concurrent.ConcurrentLinkedDeque:
+ *
+ * - Links are changed with compare-and-set only; no thread ever blocks another.
+ * - removeNode() first marks the node deleted (that is the moment it leaves the list), then
+ *   tries to unlink it. Unlinking is best effort; traversals skip deleted nodes and finish
+ *   the unlinking they come across. The last node is never unlinked, so an append can never
+ *   land behind a node that is being cut out: a deleted last node stays reachable through
+ *   {@code next} links, for good if nothing is appended after it, and is unlinked by the
+ *   first traversal that passes it once something is.
+ * - {@code next} links are authoritative; {@code prev} links are only hints.
+ * - forEach(), find() and iterator() are weakly consistent: they never fail or loop because
+ *   of concurrent changes, see every element that was present for the whole walk, and may or
+ *   may not see elements added or removed during it.
+ * - size() is exact when the list is quiescent, a snapshot otherwise.
+ *
+ * Only the NodeList operations exist: nothing can be linked or moved relative to another
+ * node, which is what DoublyLinkedList adds. Walk the list with forEach/find/iterator, or
+ * node by node with getHead() and {@link #next(Node)}; a raw walk over {@code node.next}
+ * can reach removed nodes, however long ago they were removed.
+ */
+public class ConcurrentDoublyLinkedList<T> implements NodeList<T> {
+
+    private static final VarHandle NEXT;
+    private static final VarHandle PREV;
+    private static final VarHandle DELETED;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+            PREV = lookup.findVarHandle(Node.class, "prev", Node.class);
+            DELETED = lookup.findVarHandle(CNode.class, "deleted", boolean.class);
+            TAIL = lookup.findVarHandle(ConcurrentDoublyLinkedList.class, "tail", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Nodes created by this list carry the logical-deletion mark
+    private static final class CNode<T> extends Node<T> {
+        volatile boolean deleted;
+
+        CNode(T data) {
+            super(data);
+        }
+    }
+
+    // Sentinel before the first element; never deleted, so addFirst always has a place to CAS
+    private final CNode<T> sentinel = new CNode<>(null);
+    // Some node at or near the end; the true last node is the only one whose next is null
+    private volatile Node<T> tail = sentinel;
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Node<T> addLast(T data) {
+        CNode<T> node = new CNode<>(data);
+        while (true) {
+            Node<T> t = tail;
+            Node<T> last = t;
+            Node<T> next;
+            while ((next = link(last)) != null) {
+                last = next;
+            }
+            PREV.setRelease(node, last == sentinel ? null : last);
+            if (NEXT.compareAndSet(last, null, node)) {
+                TAIL.compareAndSet(this, t, node); // fine if it fails: someone moved it further
+                count.incrementAndGet();
+                return node;
+            }
+        }
+    }
+
+    @Override
+    public Node<T> addFirst(T data) {
+        CNode<T> node = new CNode<>(data);
+        while (true) {
+            Node<T> first = link(sentinel);
+            NEXT.setRelease(node, first);
+            if (NEXT.compareAndSet(sentinel, first, node)) {
+                if (first != null) PREV.setRelease(first, node);
+                else TAIL.compareAndSet(this, sentinel, node);
+                count.incrementAndGet();
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Remove a node this list handed out. Safe to call from several threads for the same node;
+     * only the first call counts.
+     */
+    @Override
+    public void removeNode(Node<T> node) {
+        if (node == null) return;
+        if (!(node instanceof CNode) || node == sentinel) {
+            throw new IllegalArgumentException("Node does not belong to a ConcurrentDoublyLinkedList");
+        }
+        if (!DELETED.compareAndSet((CNode<T>) node, false, true)) return;
+        count.decrementAndGet();
+
+        // Try the hinted predecessor; if the hint is stale a later traversal unlinks it
+        Node<T> pred = (Node<T>) PREV.getAcquire(node);
+        unlink(pred == null ? sentinel : pred, node);
+    }
+
+    // Cut a deleted node out behind pred, unless it is the last node
+    private void unlink(Node<T> pred, Node<T> node) {
+        Node<T> succ = link(node);
+        if (succ == null) return;
+        if (NEXT.compareAndSet(pred, node, succ)) {
+            PREV.setRelease(succ, pred == sentinel ? null : pred);
+        }
+    }
+
+    private static boolean isDeleted(Node<?> node) {
+        return ((CNode<?>) node).deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> link(Node<T> node) {
+        return (Node<T>) NEXT.getAcquire(node);
+    }
+
+    // First live node after pred, unlinking deleted ones on the way
+    private Node<T> nextLive(Node<T> pred) {
+        Node<T> node = link(pred);
+        while (node != null && isDeleted(node)) {
+            unlink(pred, node);
+            Node<T> after = link(node);
+            if (link(pred) == after) {
+                node = after; // unlinked, keep the same predecessor
+            } else {
+                pred = node;  // could not unlink (e.g. last node), just step over it
+                node = after;
+            }
+        }
+        return node;
+    }
+
+    @Override
+    public Node<T> getHead() {
+        return nextLive(sentinel);
+    }
+
+    /**
+     * The first node after this one that has not been removed (this one may have been).
+     */
+    @Override
+    public Node<T> next(Node<T> node) {
+        return nextLive(node);
+    }
+
+    /**
+     * Last live node. Walks backwards over deleted nodes using the prev hints, which may
+     * lag; falls back to a forward walk when they run out.
+     */
+    @Override
+    public Node<T> getTail() {
+        Node<T> last = tail;
+        Node<T> next;
+        while ((next = link(last)) != null) {
+            last = next;
+        }
+        if (last == sentinel) return null;
+        if (!isDeleted(last)) return last;
+        Node<T> lastLive = null;
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            lastLive = node;
+        }
+        return lastLive;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, count.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getHead() == null;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            action.accept(node.data);
+        }
+    }
+
+    @Override
+    public <A> void forEach(BiConsumer<? super T, ? super A> action, A arg) {
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            action.accept(node.data, arg);
+        }
+    }
+
+    @Override
+    public Node<T> find(Predicate<T> predicate) {
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            if (predicate.test(node.data)) return node;
+        }
+        return null;
+    }
+
+    @Override
+    public <A> Node<T> find(BiPredicate<? super T, ? super A> predicate, A arg) {
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            if (predicate.test(node.data, arg)) return node;
+        }
+        return null;
+    }
+
+    @Override
+    public int sumInt(ToIntFunction<? super T> value) {
+        int sum = 0;
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            sum += value.applyAsInt(node.data);
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumLong(ToLongFunction<? super T> value) {
+        long sum = 0;
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            sum += value.applyAsLong(node.data);
+        }
+        return sum;
+    }
+
+    @Override
+    public <A> int count(BiPredicate<? super T, ? super A> predicate, A arg) {
+        int count = 0;
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            if (predicate.test(node.data, arg)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Weakly consistent iterator, a new one per call so threads never share it;
+     * remove() removes the last returned element.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Node<T> next = nextLive(sentinel);
+            private Node<T> lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) throw new NoSuchElementException();
+                lastReturned = next;
+                next = nextLive(next);
+                return lastReturned.data;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) throw new IllegalStateException();
+                removeNode(lastReturned);
+                lastReturned = null;
+            }
+        };
+    }
+
+    /**
+     * Weakly consistent and not SIZED: the size may change while the stream runs.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.CONCURRENT);
+    }
+
+    /**
+     * Removes every element present when the walk reaches it; elements added concurrently
+     * may survive.
+     */
+    @Override
+    public void clear() {
+        for (Node<T> node = nextLive(sentinel); node != null; node = nextLive(node)) {
+            removeNode(node);
+        }
+    }
+}
@@ -1,19 +1,65 @@
 package com.todo.ds;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class DoublyLinkedList<T> {
+/**
+ * Doubly linked list that hands out its nodes, so callers can remove, relink and move them
+ * in O(1). The NodeList operations plus the positional ones (insert/link/move relative to a
+ * node, swapAdjacent, splice) that only a single-threaded list can offer.
+ */
+public class DoublyLinkedList<T> implements NodeList<T> {
     private Node<T> head;
     private Node<T> tail;
     private int size = 0;
+    // Last cursor handed out by iterator(), reused once its walk is over
+    private Cursor<T> cursor;
 
-    public Node<T> getHead() { return head; }
-    public Node<T> getTail() { return tail; }
-    public int size() { return size; }
-    public boolean isEmpty() { return size == 0; }
+    @Override public Node<T> getHead() { return head; }
+    @Override public Node<T> getTail() { return tail; }
+    @Override public Node<T> next(Node<T> node) { return node.next; }
+    @Override public int size() { return size; }
+    @Override public boolean isEmpty() { return size == 0; }
 
+    @Override
     public Node<T> addLast(T data) {
         Node<T> node = new Node<>(data);
+        linkLast(node);
+        return node;
+    }
+
+    @Override
+    public Node<T> addFirst(T data) {
+        Node<T> node = new Node<>(data);
+        linkFirst(node);
+        return node;
+    }
+
+    public Node<T> insertAfter(Node<T> anchor, T data) {
+        Node<T> node = new Node<>(data);
+        linkAfter(anchor, node);
+        return node;
+    }
+
+    public Node<T> insertBefore(Node<T> anchor, T data) {
+        Node<T> node = new Node<>(data);
+        linkBefore(anchor, node);
+        return node;
+    }
+
+    // --- Linking existing nodes (no allocation) ---
+    // The node must not currently be in any list, e.g. one that removeNode() returned to us.
+
+    public void linkLast(Node<T> node) {
         if (head == null) {
             head = tail = node;
         } else {
@@ -22,9 +68,40 @@ public class DoublyLinkedList<T> {
             tail = node;
         }
         size++;
-        return node;
     }
 
+    public void linkFirst(Node<T> node) {
+        if (head == null) {
+            head = tail = node;
+        } else {
+            node.next = head;
+            head.prev = node;
+            head = node;
+        }
+        size++;
+    }
+
+    public void linkAfter(Node<T> anchor, Node<T> node) {
+        if (anchor == tail) {
+            linkLast(node);
+            return;
+        }
+        node.prev = anchor;
+        node.next = anchor.next;
+        anchor.next.prev = node;
+        anchor.next = node;
+        size++;
+    }
+
+    public void linkBefore(Node<T> anchor, Node<T> node) {
+        if (anchor == head) {
+            linkFirst(node);
+            return;
+        }
+        linkAfter(anchor.prev, node);
+    }
+
+    @Override
     public void removeNode(Node<T> node) {
         if (node == null) return;
 
@@ -39,7 +116,148 @@ public class DoublyLinkedList<T> {
         size--;
     }
 
-    public void forEach(Consumer<T> action) {
+    /**
+     * Move a node of this list so it sits right after {@code anchor}, or to the head when
+     * anchor is null. Pure pointer surgery: O(1), no allocation, size unchanged.
+     */
+    public void moveAfter(Node<T> node, Node<T> anchor) {
+        if (node == anchor) return;
+        if (anchor == null ? node == head : anchor.next == node) return; // already there
+
+        detach(node);
+        if (anchor == null) {
+            node.next = head;
+            if (head != null) head.prev = node;
+            head = node;
+            if (tail == null) tail = node;
+        } else {
+            node.prev = anchor;
+            node.next = anchor.next;
+            if (anchor.next != null) anchor.next.prev = node;
+            anchor.next = node;
+            if (anchor == tail) tail = node;
+        }
+    }
+
+    /**
+     * Move a node of this list so it sits right before {@code anchor}, or to the tail when
+     * anchor is null. O(1), no allocation, size unchanged.
+     */
+    public void moveBefore(Node<T> node, Node<T> anchor) {
+        if (node == anchor || (anchor != null && anchor.prev == node)) return; // already there
+        moveAfter(node, anchor == null ? tail : anchor.prev);
+    }
+
+    /**
+     * Swap two neighbouring nodes, where {@code first.next == second}. O(1).
+     */
+    public void swapAdjacent(Node<T> first, Node<T> second) {
+        if (first == null || second == null || first.next != second) {
+            throw new IllegalArgumentException("Nodes are not adjacent in this order");
+        }
+        Node<T> before = first.prev;
+        Node<T> after = second.next;
+
+        second.prev = before;
+        second.next = first;
+        first.prev = second;
+        first.next = after;
+
+        if (before != null) before.next = second; else head = second;
+        if (after != null) after.prev = first; else tail = first;
+    }
+
+    /**
+     * Append every node of {@code other} to this list in O(1). {@code other} is left empty.
+     */
+    public void splice(DoublyLinkedList<T> other) {
+        if (other == this || other.head == null) return;
+        if (head == null) {
+            head = other.head;
+        } else {
+            tail.next = other.head;
+            other.head.prev = tail;
+        }
+        tail = other.tail;
+        size += other.size;
+        other.clear();
+    }
+
+    // Unhook a node from its neighbours without changing size; caller relinks it
+    private void detach(Node<T> node) {
+        if (node == head) head = node.next;
+        if (node == tail) tail = node.prev;
+        if (node.prev != null) node.prev.next = node.next;
+        if (node.next != null) node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    // --- Iteration ---
+    // Lambdas that capture nothing are allocated once per call site, so the forms taking an
+    // extra argument (and the cursor behind iterator()) let hot loops walk the list without
+    // allocating anything; TodoBenchmarks.dll with -prof gc checks that they stay at 0 B/op.
+
+    /**
+     * Iterator over the elements. A list keeps the cursor of its last finished walk and hands
+     * it out again, so a for-each loop over a list allocates nothing once warm. Cursors are
+     * only reused by the thread that created them; a walk abandoned halfway simply costs the
+     * next one a new cursor. Don't keep an iterator once hasNext() has returned false: its
+     * cursor may already be walking for someone else. remove() unlinks the last returned element.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Cursor<T> c = cursor;
+        if (c == null || c.inUse || c.owner != Thread.currentThread()) {
+            c = new Cursor<>(this);
+            cursor = c;
+        }
+        c.reset(head);
+        return c;
+    }
+
+    private static final class Cursor<T> implements Iterator<T> {
+        final DoublyLinkedList<T> list;
+        final Thread owner = Thread.currentThread();
+        Node<T> next;
+        Node<T> lastReturned;
+        boolean inUse;
+
+        Cursor(DoublyLinkedList<T> list) {
+            this.list = list;
+        }
+
+        void reset(Node<T> first) {
+            next = first;
+            lastReturned = null;
+            inUse = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            inUse = false; // walk finished, the list may hand this cursor out again
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) throw new NoSuchElementException();
+            lastReturned = next;
+            next = next.next;
+            return lastReturned.data;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            list.removeNode(lastReturned);
+            lastReturned = null;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
         Node<T> cur = head;
         while (cur != null) {
             action.accept(cur.data);
@@ -47,7 +265,17 @@ public class DoublyLinkedList<T> {
         }
     }
 
+    @Override
+    public <A> void forEach(BiConsumer<? super T, ? super A> action, A arg) {
+        Node<T> cur = head;
+        while (cur != null) {
+            action.accept(cur.data, arg);
+            cur = cur.next;
+        }
+    }
+
     // helper: find node by predicate (simple)
+    @Override
     public Node<T> find(java.util.function.Predicate<T> predicate) {
         Node<T> cur = head;
         while (cur != null) {
@@ -57,6 +285,147 @@ public class DoublyLinkedList<T> {
         return null;
     }
 
+    @Override
+    public <A> Node<T> find(BiPredicate<? super T, ? super A> predicate, A arg) {
+        Node<T> cur = head;
+        while (cur != null) {
+            if (predicate.test(cur.data, arg)) return cur;
+            cur = cur.next;
+        }
+        return null;
+    }
+
+    // --- Streams ---
+
+    /**
+     * SIZED | ORDERED spliterator. A linked list cannot be cut in the middle without walking
+     * to it, so like java.util.LinkedList it splits off array-backed batches from the front,
+     * each one larger than the last. Late-binding: the walk starts at the first traversal or split.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new NodeSpliterator<>(this);
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Parallel stream once the list holds at least {@code parallelThreshold} elements,
+     * sequential below that, where forking costs more than it saves.
+     */
+    public Stream<T> stream(int parallelThreshold) {
+        return StreamSupport.stream(spliterator(), size() >= parallelThreshold);
+    }
+
+    private static final class NodeSpliterator<T> implements Spliterator<T> {
+        static final int BATCH_UNIT = 1 << 10;
+        static final int MAX_BATCH = 1 << 25;
+
+        final DoublyLinkedList<T> list;
+        Node<T> current;
+        int remaining = -1; // -1 until bound to the list
+        int batch;
+
+        NodeSpliterator(DoublyLinkedList<T> list) {
+            this.list = list;
+        }
+
+        private int remaining() {
+            if (remaining < 0) {
+                current = list.head;
+                remaining = list.size;
+            }
+            return remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining() == 0 || current == null) return false;
+            T data = current.data;
+            current = current.next;
+            remaining--;
+            action.accept(data);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Node<T> cur = remaining() > 0 ? current : null;
+            int n = remaining;
+            current = null;
+            remaining = 0;
+            for (; cur != null && n > 0; n--) {
+                action.accept(cur.data);
+                cur = cur.next;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int left = remaining();
+            if (left <= 1 || current == null) return null;
+            int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), left);
+            Object[] items = new Object[n];
+            Node<T> cur = current;
+            int i = 0;
+            for (; i < n && cur != null; i++) {
+                items[i] = cur.data;
+                cur = cur.next;
+            }
+            current = cur;
+            remaining -= i;
+            batch = i;
+            return Spliterators.spliterator(items, 0, i, ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    // --- Primitive folds, no boxing ---
+
+    @Override
+    public int sumInt(ToIntFunction<? super T> value) {
+        int sum = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next) {
+            sum += value.applyAsInt(cur.data);
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumLong(ToLongFunction<? super T> value) {
+        long sum = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next) {
+            sum += value.applyAsLong(cur.data);
+        }
+        return sum;
+    }
+
+    @Override
+    public <A> int count(BiPredicate<? super T, ? super A> predicate, A arg) {
+        int count = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next) {
+            if (predicate.test(cur.data, arg)) count++;
+        }
+        return count;
+    }
+
+    @Override
     public void clear() {
         head = null;
         tail = null;
@@ -0,0 +1,66 @@
+package com.todo.ds;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The list operations subtask lists need: add at either end, remove a node handed out
+ * earlier, and walk. DoublyLinkedList implements it (and adds positional operations on top);
+ * ConcurrentDoublyLinkedList implements only this, so code typed to NodeList runs on either.
+ *
+ * Walk node by node with getHead() and {@link #next(Node)}, never {@code node.next}: on a
+ * ConcurrentDoublyLinkedList that can lead to a node that was already removed.
+ */
+public interface NodeList<T> extends Iterable<T> {
+
+    Node<T> getHead();
+    Node<T> getTail();
+
+    /**
+     * The node after this one, or null at the end.
+     */
+    Node<T> next(Node<T> node);
+
+    int size();
+    boolean isEmpty();
+
+    Node<T> addLast(T data);
+    Node<T> addFirst(T data);
+
+    /**
+     * Remove a node this list handed out.
+     */
+    void removeNode(Node<T> node);
+
+    /**
+     * forEach with an extra argument handed to every call, so the action need not capture it.
+     */
+    <A> void forEach(BiConsumer<? super T, ? super A> action, A arg);
+
+    Node<T> find(Predicate<T> predicate);
+
+    /**
+     * First node whose element matches {@code predicate.test(element, arg)}, or null.
+     * E.g. {@code find((t, id) -> t.getId().equals(id), id)} searches without a capturing lambda.
+     */
+    <A> Node<T> find(BiPredicate<? super T, ? super A> predicate, A arg);
+
+    int sumInt(ToIntFunction<? super T> value);
+    long sumLong(ToLongFunction<? super T> value);
+
+    /**
+     * Number of elements matching {@code predicate.test(element, arg)}.
+     */
+    <A> int count(BiPredicate<? super T, ? super A> predicate, A arg);
+
+    void clear();
+
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
@@ -0,0 +1,185 @@
+package com.todo.ds;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Balanced search tree (a treap) where every node knows its subtree size,
+ * so besides O(log n) insert/remove it answers rank and "k-th element" queries in O(log n).
+ *
+ * The comparator must be a total order over the stored elements (no two elements
+ * comparing equal), and an element's sort key must not change while it is in the tree:
+ * remove it, change it, insert it again.
+ */
+public class OrderStatisticTree<E> {
+
+    private static class TreeNode<E> {
+        final E value;
+        final int priority;
+        int size = 1;
+        TreeNode<E> left;
+        TreeNode<E> right;
+
+        TreeNode(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    // The two trees a split leaves
+    private static class Split<E> {
+        TreeNode<E> left;
+        TreeNode<E> right;
+    }
+
+    private final Comparator<? super E> comparator;
+    private TreeNode<E> root;
+    private int seed = 0x2545F491;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() { return size(root); }
+    public boolean isEmpty() { return root == null; }
+    public void clear() { root = null; }
+
+    public void insert(E value) {
+        Split<E> parts = split(root, value, false);
+        if (parts.right != null && comparator.compare(leftmost(parts.right).value, value) == 0) {
+            root = merge(parts.left, parts.right);
+            throw new IllegalArgumentException("Element already present: " + value);
+        }
+        root = merge(merge(parts.left, new TreeNode<>(value, nextPriority())), parts.right);
+    }
+
+    public boolean remove(E value) {
+        Split<E> lessAndRest = split(root, value, false);
+        Split<E> equalAndGreater = split(lessAndRest.right, value, true);
+        root = merge(lessAndRest.left, equalAndGreater.right);
+        return equalAndGreater.left != null;
+    }
+
+    /**
+     * Number of elements ordered before this one, or -1 if it is not in the tree.
+     */
+    public int rank(E value) {
+        int rank = 0;
+        TreeNode<E> cur = root;
+        while (cur != null) {
+            int cmp = comparator.compare(value, cur.value);
+            if (cmp == 0) return rank + size(cur.left);
+            if (cmp < 0) {
+                cur = cur.left;
+            } else {
+                rank += size(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The element at this position in sort order (0-based).
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        TreeNode<E> cur = root;
+        while (true) {
+            int leftSize = size(cur.left);
+            if (index < leftSize) {
+                cur = cur.left;
+            } else if (index == leftSize) {
+                return cur.value;
+            } else {
+                index -= leftSize + 1;
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * The first {@code k} elements in sort order.
+     */
+    public List<E> first(int k) {
+        List<E> out = new ArrayList<>(Math.max(0, Math.min(k, size())));
+        collect(root, out, k);
+        return out;
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        inOrder(root, action);
+    }
+
+    private void collect(TreeNode<E> node, List<E> out, int k) {
+        if (node == null || out.size() >= k) return;
+        collect(node.left, out, k);
+        if (out.size() < k) out.add(node.value);
+        collect(node.right, out, k);
+    }
+
+    private void inOrder(TreeNode<E> node, Consumer<? super E> action) {
+        if (node == null) return;
+        inOrder(node.left, action);
+        action.accept(node.value);
+        inOrder(node.right, action);
+    }
+
+    // Split into (< value, >= value), or (<= value, > value) when inclusive
+    private Split<E> split(TreeNode<E> node, E value, boolean inclusive) {
+        if (node == null) return new Split<>();
+        int cmp = comparator.compare(node.value, value);
+        boolean goesLeft = inclusive ? cmp <= 0 : cmp < 0;
+        if (goesLeft) {
+            Split<E> parts = split(node.right, value, inclusive);
+            node.right = parts.left;
+            update(node);
+            parts.left = node;
+            return parts;
+        } else {
+            Split<E> parts = split(node.left, value, inclusive);
+            node.left = parts.right;
+            update(node);
+            parts.right = node;
+            return parts;
+        }
+    }
+
+    // Every element of a must sort before every element of b
+    private TreeNode<E> merge(TreeNode<E> a, TreeNode<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    private static <E> TreeNode<E> leftmost(TreeNode<E> node) {
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    private static int size(TreeNode<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(TreeNode<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // xorshift: cheap, deterministic heap priorities are all a treap needs
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
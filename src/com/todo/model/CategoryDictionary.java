@@ -0,0 +1,70 @@
+package com.todo.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of category names. Every distinct category gets a small int code
+ * (0, 1, 2, ... in order of first use) and one canonical String, so tasks keep a code instead
+ * of their own copy of the name, and grouping or filtering by category compares ints.
+ *
+ * Codes only live as long as the process: the database has its own ids (categories table)
+ * and DatabaseManager translates between the two. Thread-safe; lookups do not lock.
+ */
+public final class CategoryDictionary {
+
+    /** Code of a null category. */
+    public static final int NONE = -1;
+
+    private static final ConcurrentHashMap<String, Integer> CODES = new ConcurrentHashMap<>();
+    // Published after the new entry is written, so readers of a code see its name
+    private static volatile String[] names = new String[16];
+    private static int size;
+
+    private CategoryDictionary() {
+    }
+
+    /**
+     * Code for a category name, adding it on first use. Null maps to {@link #NONE}.
+     */
+    public static int code(String category) {
+        if (category == null) return NONE;
+        Integer code = CODES.get(category);
+        return code != null ? code : add(category);
+    }
+
+    /**
+     * Code for a category name without adding it: {@link #NONE} for null or unknown names.
+     * For filters, where an unknown name simply matches nothing.
+     */
+    public static int lookup(String category) {
+        if (category == null) return NONE;
+        Integer code = CODES.get(category);
+        return code != null ? code : NONE;
+    }
+
+    /**
+     * The canonical name for a code, null for {@link #NONE}.
+     */
+    public static String name(int code) {
+        return code == NONE ? null : names[code];
+    }
+
+    /** Number of categories seen so far; codes run from 0 to size() - 1. */
+    public static int size() {
+        return CODES.size();
+    }
+
+    private static synchronized int add(String category) {
+        Integer existing = CODES.get(category);
+        if (existing != null) return existing;
+        int code = size;
+        String[] current = names;
+        if (code == current.length) current = Arrays.copyOf(current, code * 2);
+        current[code] = category;
+        size = code + 1;
+        names = current;
+        CODES.put(category, code);
+        return code;
+    }
+}
@@ -1,63 +1,179 @@
 package com.todo.model;
 
 import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.NodeList;
 import java.time.LocalDate;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class Task {
+
+    /**
+     * Persisted columns. Each setter flips the field's bit in the dirty mask when the
+     * value actually changes, so the persistence layer can skip clean rows and write
+     * only the changed columns of dirty ones.
+     */
+    public enum Field {
+        NAME, CATEGORY, DEADLINE, PRIORITY, STATUS, MOMENTUM, PARENT_ID;
+
+        public int bit() { return 1 << ordinal(); }
+    }
+
     private String id = UUID.randomUUID().toString();
     private String name;
-    private String category;
+    // Code in CategoryDictionary, so tasks share one String per category
+    private int categoryCode;
     private LocalDate deadline;
     private Priority priority;
     private Status status;
 
     private int momentum = 0;
 
-    private final DoublyLinkedList<Task> subtasks = new DoublyLinkedList<>();
+    private NodeList<Task> subtasks = new DoublyLinkedList<>();
     private String parentId;
+    // Set while this task's subtasks are still in the database (lazy loading)
+    private Consumer<Task> subtaskLoader;
+
+    private int dirtyMask = 0;
+    // False until the row has been handed to the persistence layer once
+    private boolean persisted;
 
     public Task(String name, String category, LocalDate deadline, Priority priority) {
         this.name = name;
-        this.category = category;
+        this.categoryCode = CategoryDictionary.code(category);
         this.deadline = deadline;
         this.priority = priority;
         this.status = Status.PENDING;
+        this.persisted = false;
     }
 
     // Constructor for DB loading
     public Task(String id, String name, String category, LocalDate deadline, Priority priority, Status status, int momentum) {
         this.id = id;
         this.name = name;
-        this.category = category;
+        this.categoryCode = CategoryDictionary.code(category);
         this.deadline = deadline;
         this.priority = priority;
         this.status = status;
         this.momentum = momentum;
+        this.persisted = true;
     }
 
     public String getId() { return id; }
     public String getName() { return name; }
-    public String getCategory() { return category; }
+    public String getCategory() { return CategoryDictionary.name(categoryCode); }
+    /** The category as a CategoryDictionary code: equal codes mean equal categories. */
+    public int getCategoryCode() { return categoryCode; }
     public LocalDate getDeadline() { return deadline; }
     public Priority getPriority() { return priority; }
     public Status getStatus() { return status; }
-    public DoublyLinkedList<Task> getSubtasks() { return subtasks; }
+    /**
+     * The subtask list. For lazily loaded tasks the first call fetches the subtasks.
+     */
+    public NodeList<Task> getSubtasks() {
+        if (subtaskLoader != null) {
+            Consumer<Task> loader = subtaskLoader;
+            subtaskLoader = null; // clear first so the loader itself can fill the list
+            loader.accept(this);
+        }
+        return subtasks;
+    }
+
+    /**
+     * The subtasks already in memory, without triggering a lazy load. For bookkeeping
+     * walks (indexing, persistence, decay) that must not pull whole subtrees in.
+     */
+    public NodeList<Task> getLoadedSubtasks() { return subtasks; }
+
+    /**
+     * Move the loaded subtasks into another list implementation (e.g. a
+     * ConcurrentDoublyLinkedList) and use that from now on. The subtasks get new list nodes,
+     * so re-index them afterwards. Only call this before the task is shared between threads.
+     */
+    public void setSubtaskList(NodeList<Task> list) {
+        subtasks.forEach(list::addLast);
+        subtasks = list;
+    }
+
+    /**
+     * Defer loading subtasks until the first getSubtasks() call. Also used to unload them
+     * again: clear the list, then install a fresh loader.
+     */
+    public void setSubtaskLoader(Consumer<Task> loader) { this.subtaskLoader = loader; }
+    public boolean areSubtasksLoaded() { return subtaskLoader == null; }
 
     public String getParentId() { return parentId; }
-    public void setParentId(String parentId) { this.parentId = parentId; }
+    public void setParentId(String parentId) {
+        if (!Objects.equals(this.parentId, parentId)) markDirty(Field.PARENT_ID);
+        this.parentId = parentId;
+    }
 
     public int getMomentum() { return momentum; }
-    public void setMomentum(int momentum) { this.momentum = momentum; }
+    public void setMomentum(int momentum) {
+        if (this.momentum != momentum) markDirty(Field.MOMENTUM);
+        this.momentum = momentum;
+    }
+
+    public void setName(String name) {
+        if (!Objects.equals(this.name, name)) markDirty(Field.NAME);
+        this.name = name;
+    }
 
-    public void setPriority(Priority priority) { this.priority = priority; }
-    public void setStatus(Status status) { this.status = status; }
+    public void setCategory(String category) {
+        int code = CategoryDictionary.code(category);
+        if (this.categoryCode != code) markDirty(Field.CATEGORY);
+        this.categoryCode = code;
+    }
+
+    public void setDeadline(LocalDate deadline) {
+        if (!Objects.equals(this.deadline, deadline)) markDirty(Field.DEADLINE);
+        this.deadline = deadline;
+    }
+
+    public void setPriority(Priority priority) {
+        if (this.priority != priority) markDirty(Field.PRIORITY);
+        this.priority = priority;
+    }
+
+    public void setStatus(Status status) {
+        if (this.status != status) markDirty(Field.STATUS);
+        this.status = status;
+    }
+
+    // Dirty tracking
+    private void markDirty(Field field) { dirtyMask |= field.bit(); }
+    public int getDirtyMask() { return dirtyMask; }
+    public boolean isDirty(Field field) { return (dirtyMask & field.bit()) != 0; }
+
+    /**
+     * True if the row needs writing: it was never persisted, or a column changed since.
+     */
+    public boolean needsSave() { return !persisted || dirtyMask != 0; }
+    public boolean isPersisted() { return persisted; }
+
+    /**
+     * Called by the persistence layer once the current values have been captured for writing.
+     */
+    public void markClean() {
+        dirtyMask = 0;
+        persisted = true;
+    }
+
+    /**
+     * Called by the persistence layer when a write it took did not commit: the columns in
+     * {@code mask} need writing again, and so does the whole row if it may not be stored.
+     */
+    public void markUnsaved(int mask, boolean rowStored) {
+        dirtyMask |= mask;
+        if (!rowStored) persisted = false;
+    }
 
     @Override
     public String toString() {
         String momentumIndicator = getMomentumIndicator();
         return String.format("[%s] %s | MomentumIndicator:%s | Cat:%s | Due:%s | Priority:%s | Status:%s | Momentum:%d",
-                id.substring(0, 6), name, momentumIndicator, category, deadline, priority, status, momentum);
+                id.substring(0, 6), name, momentumIndicator, getCategory(), deadline, priority, status, momentum);
     }
 
     private String getMomentumIndicator() {
@@ -0,0 +1,77 @@
+package com.todo.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk write from DatabaseManager: whether the transaction committed,
+ * plus one entry per row in the order the rows were written.
+ */
+public class BatchResult {
+
+    public enum Outcome {
+        WRITTEN,     // row executed and was committed
+        FAILED,      // row was rejected (e.g. constraint violation); other rows were still committed
+        ROLLED_BACK  // row executed but the transaction as a whole did not commit
+    }
+
+    public static class RowOutcome {
+        private final String taskId;
+        private final Outcome outcome;
+        private final long updateCount;
+        private final SQLException error;
+
+        RowOutcome(String taskId, Outcome outcome, long updateCount, SQLException error) {
+            this.taskId = taskId;
+            this.outcome = outcome;
+            this.updateCount = updateCount;
+            this.error = error;
+        }
+
+        public String getTaskId() { return taskId; }
+        public Outcome getOutcome() { return outcome; }
+        public long getUpdateCount() { return updateCount; }
+        public SQLException getError() { return error; }
+
+        @Override
+        public String toString() {
+            return taskId + "=" + outcome + (error != null ? " (" + error.getMessage() + ")" : "");
+        }
+    }
+
+    private final List<RowOutcome> rows = new ArrayList<>();
+    private boolean committed = false;
+    private SQLException error;
+
+    void add(RowOutcome row) { rows.add(row); }
+    void setCommitted(boolean committed) { this.committed = committed; }
+    void setError(SQLException error) { this.error = error; }
+
+    public boolean isCommitted() { return committed; }
+    public SQLException getError() { return error; }
+    public List<RowOutcome> getRows() { return Collections.unmodifiableList(rows); }
+    public int size() { return rows.size(); }
+
+    public int count(Outcome outcome) {
+        int n = 0;
+        for (RowOutcome row : rows) {
+            if (row.outcome == outcome) n++;
+        }
+        return n;
+    }
+
+    /**
+     * True when the transaction committed and no row was rejected.
+     */
+    public boolean isFullySuccessful() {
+        return committed && count(Outcome.FAILED) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchResult[committed=%s, written=%d, failed=%d, rolledBack=%d]",
+                committed, count(Outcome.WRITTEN), count(Outcome.FAILED), count(Outcome.ROLLED_BACK));
+    }
+}
@@ -0,0 +1,95 @@
+package com.todo.service;
+
+import com.todo.model.CategoryDictionary;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The categories table of one database, mirrored in memory as database id <-> CategoryDictionary
+ * code, so reading a task's category is an array lookup and no String is created per row.
+ *
+ * Category rows are only ever added, never changed or deleted, so the mirror can only miss
+ * rows, never hold wrong ones: a miss re-reads the table. New names are inserted (and
+ * committed) before the task rows that use them are written; if those writes then roll
+ * back, the unused category row is harmless.
+ */
+final class CategoryTable {
+
+    static final String SELECT_ALL_SQL = "SELECT id, name FROM categories";
+    static final String INSERT_SQL = "INSERT INTO categories (name) VALUES (?) ON CONFLICT(name) DO NOTHING";
+    static final String SELECT_ID_SQL = "SELECT id FROM categories WHERE name = ?";
+
+    // Index by database id / dictionary code; 0 means unknown (ids start at 1, so code + 1 is stored).
+    // Replaced, never modified once published, so readers go without locking.
+    private volatile int[] codeById = new int[0];
+    private volatile int[] idByCode = new int[0];
+
+    /**
+     * Dictionary code for a category_id value; 0 (what getInt returns for NULL) is no category.
+     */
+    int codeOf(int id, ConnectionPool.Lease lease) throws SQLException {
+        if (id == 0) return CategoryDictionary.NONE;
+        int[] codes = codeById;
+        if (id < codes.length && codes[id] != 0) return codes[id] - 1;
+        reload(lease);
+        codes = codeById;
+        if (id < codes.length && codes[id] != 0) return codes[id] - 1;
+        throw new SQLException("Unknown category id " + id);
+    }
+
+    /**
+     * Database id for a dictionary code, or 0 if it has none yet (see {@link #ensure}).
+     */
+    int idOf(int code) {
+        int[] ids = idByCode;
+        return code >= 0 && code < ids.length ? ids[code] : 0;
+    }
+
+    /**
+     * Make sure every category the writes will store has a row. Runs on the writer in
+     * autocommit mode, before the writes' own transaction starts.
+     */
+    synchronized void ensure(ConnectionPool.Lease writer, List<TaskWrite> writes) throws SQLException {
+        for (TaskWrite write : writes) {
+            int code = write.categoryToWrite();
+            if (code == CategoryDictionary.NONE || idOf(code) != 0) continue;
+            String name = CategoryDictionary.name(code);
+            PreparedStatement insert = writer.prepare(INSERT_SQL);
+            insert.setString(1, name);
+            insert.executeUpdate();
+            PreparedStatement select = writer.prepare(SELECT_ID_SQL);
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Category '" + name + "' was not stored");
+                put(rs.getInt(1), code);
+            }
+        }
+    }
+
+    private synchronized void reload(ConnectionPool.Lease lease) throws SQLException {
+        try (ResultSet rs = lease.prepare(SELECT_ALL_SQL).executeQuery()) {
+            while (rs.next()) {
+                put(rs.getInt(1), CategoryDictionary.code(rs.getString(2)));
+            }
+        }
+    }
+
+    private void put(int id, int code) {
+        int[] codes = codeById;
+        if (id >= codes.length || codes[id] != code + 1) {
+            codes = Arrays.copyOf(codes, Math.max(codes.length, Math.max(16, Integer.highestOneBit(id) * 2)));
+            codes[id] = code + 1;
+            codeById = codes;
+        }
+        int[] ids = idByCode;
+        if (code >= ids.length || ids[code] != id) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length, Math.max(16, Integer.highestOneBit(code) * 2)));
+            ids[code] = id;
+            idByCode = ids;
+        }
+    }
+}
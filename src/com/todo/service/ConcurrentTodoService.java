@@ -0,0 +1,291 @@
+package com.todo.service;
+
+import com.todo.ds.ConcurrentDoublyLinkedList;
+import com.todo.ds.DoublyLinkedList;
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * TodoService that many threads can call at once (background jobs, several clients).
+ *
+ * Locking:
+ * - {@code structure} (read-write): the top-level list, its momentum order, the undo stack.
+ *   Adding, deleting and undeleting top-level tasks, updateMomentum and autoPromotePriorities
+ *   take it exclusively. Everything else holds it shared.
+ * - {@code stripes} (read-write, one per hash bucket of the root task id): a root task's whole
+ *   subtree. workOnTask, updateTaskStatus and addSubtask resolve the task, then take the write
+ *   stripe of its root, so work on different roots proceeds in parallel.
+ * - Reads (readTasks, forEachTask, displayAll, showMomentumInsights, the category queries,
+ *   loadedTasks, query) take the structure lock and every stripe shared, so they see one
+ *   consistent state and wait for subtree operations in progress. Task fields are plain
+ *   fields written under a stripe, so reading them under the structure lock alone would race.
+ * - Subtask lists are ConcurrentDoublyLinkedLists, so walking a task handed out earlier,
+ *   outside any lock, does not break while another thread appends to it; its values may be
+ *   stale, though.
+ * Locks are always taken structure first, then stripes in ascending order.
+ *
+ * Momentum changes made under a stripe only queue the task in MomentumTracker; the list is
+ * reordered right after, under the exclusive structure lock, before the call returns.
+ *
+ * Guarantees:
+ * - Every public operation is linearizable with respect to task state (fields, subtasks,
+ *   membership of the top-level list): it takes effect atomically at some point between its
+ *   call and its return.
+ * - The momentum order is brought up to date before an operation returns, but a concurrent
+ *   read may see a task whose momentum changed a moment before it moved.
+ * - Writes reach the database in the order they were made, through the write-behind queue.
+ *
+ * Only EAGER loading is supported: lazy loading mutates subtask lists from inside getSubtasks(),
+ * which a shared read lock cannot allow. {@link #getTasks()} is the live list; other threads can
+ * change it at any time, so iterate it through {@link #readTasks} instead.
+ */
+public class ConcurrentTodoService extends TodoService {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock[] stripes;
+
+    public ConcurrentTodoService() {
+        this(Long.getLong("todo.flushIntervalMs", WriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MS),
+                Integer.getInteger("todo.writeQueueCapacity", WriteBehindQueue.DEFAULT_CAPACITY),
+                Integer.getInteger("todo.lockStripes", DEFAULT_STRIPES));
+        setParallelThreshold(Integer.getInteger("todo.parallelThreshold", DEFAULT_PARALLEL_THRESHOLD));
+        recordSessionIfRequested();
+    }
+
+    public ConcurrentTodoService(long flushIntervalMs, int writeQueueCapacity, int stripeCount) {
+        super(flushIntervalMs, writeQueueCapacity, LoadMode.EAGER, DEFAULT_PAGE_SIZE, DEFAULT_RESIDENT_SUBTREES);
+        if (stripeCount < 1) throw new IllegalArgumentException("stripeCount must be >= 1");
+        this.stripes = new ReentrantReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        momentumTracker().deferRepositioning();
+        replaceSubtaskLists(ConcurrentDoublyLinkedList::new);
+    }
+
+    @Override
+    Task newTask(String name, String category, LocalDate deadline, Priority priority) {
+        Task task = super.newTask(name, category, deadline, priority);
+        task.setSubtaskList(new ConcurrentDoublyLinkedList<>());
+        return task;
+    }
+
+    /**
+     * Run {@code reader} against the top-level list while no other thread can change any task.
+     */
+    public void readTasks(Consumer<DoublyLinkedList<Task>> reader) {
+        read(() -> {
+            reader.accept(getTasks());
+            return null;
+        });
+    }
+
+    /**
+     * Visit every top-level task in momentum order while no other thread can change any task.
+     */
+    public void forEachTask(Consumer<Task> action) {
+        read(() -> {
+            getTasks().forEach(action);
+            return null;
+        });
+    }
+
+    // ---- reads ----
+
+    @Override
+    public void displayAll() {
+        read(() -> {
+            super.displayAll();
+            return null;
+        });
+    }
+
+    @Override
+    public String showMomentumInsights() {
+        return read(super::showMomentumInsights);
+    }
+
+    @Override
+    public List<Task> findByCategory(String category) {
+        return read(() -> super.findByCategory(category));
+    }
+
+    @Override
+    public Map<String, Integer> countByCategory() {
+        return read(super::countByCategory);
+    }
+
+    @Override
+    public List<Task> loadedTasks() {
+        return read(super::loadedTasks);
+    }
+
+    @Override
+    public List<Task> query(TaskQuery query) {
+        return read(() -> super.query(query));
+    }
+
+    // search() flushes and reads the database without locks; only the index lookups need them
+    @Override
+    List<Task> residentOrStored(List<Task> rows) {
+        return read(() -> super.residentOrStored(rows));
+    }
+
+    // ---- operations on one subtree ----
+
+    @Override
+    public void workOnTask(String idPrefix) {
+        onSubtree(idPrefix, false, id -> {
+            super.workOnTask(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateTaskStatus(String idPrefix, Status newStatus) {
+        onSubtree(idPrefix, false, id -> {
+            super.updateTaskStatus(id, newStatus);
+            return null;
+        });
+    }
+
+    @Override
+    public Task addSubtask(String parentIdPrefix, String name, LocalDate deadline, Priority priority) {
+        return onSubtree(parentIdPrefix, true, id -> super.addSubtask(id, name, deadline, priority));
+    }
+
+    // ---- operations on the top-level structure ----
+
+    @Override
+    public Task addTask(String name, String category, LocalDate deadline, Priority priority) {
+        return exclusive(() -> super.addTask(name, category, deadline, priority));
+    }
+
+    @Override
+    public Task deleteTaskById(String idPrefix) {
+        return exclusive(() -> super.deleteTaskById(idPrefix));
+    }
+
+    @Override
+    public Task undoDelete() {
+        return exclusive(super::undoDelete);
+    }
+
+    @Override
+    public void updateMomentum() {
+        exclusive(() -> {
+            super.updateMomentum();
+            return null;
+        });
+    }
+
+    @Override
+    public String autoPromotePriorities() {
+        return exclusive(super::autoPromotePriorities);
+    }
+
+    @Override
+    public int reconcile(BatchResult failed) {
+        return exclusive(() -> {
+            int reverted = super.reconcile(failed);
+            // Reverted momentums were only queued for repositioning
+            momentumTracker().applyDeferredRepositions(this::fireTaskChanged);
+            return reverted;
+        });
+    }
+
+    @Override
+    public void startRecording(Path log) throws IOException {
+        structure.writeLock().lock();
+        try {
+            super.startRecording(log);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    // ---- locking ----
+
+    private interface SubtreeOperation<T> {
+        T apply(String taskId);
+    }
+
+    /**
+     * Resolve the prefix, lock the subtree the task belongs to and run the operation with the
+     * full id, so the base class cannot resolve the prefix to a task in some other subtree that
+     * appeared in the meantime.
+     */
+    private <T> T onSubtree(String idPrefix, boolean topLevelOnly, SubtreeOperation<T> operation) {
+        structure.readLock().lock();
+        try {
+            Task task = findUniqueByPrefix(idPrefix, topLevelOnly);
+            if (task == null) return null; // already reported
+            ReentrantReadWriteLock stripe = stripeFor(rootOf(task));
+            stripe.writeLock().lock();
+            try {
+                return operation.apply(task.getId());
+            } finally {
+                stripe.writeLock().unlock();
+            }
+        } finally {
+            structure.readLock().unlock();
+            applyDeferredRepositions();
+        }
+    }
+
+    private <T> T exclusive(Supplier<T> operation) {
+        structure.writeLock().lock();
+        try {
+            // Pick up any reorder a subtree operation queued but has not applied yet
+            momentumTracker().applyDeferredRepositions(this::fireTaskChanged);
+            return operation.get();
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        structure.readLock().lock();
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) {
+                stripes[locked].readLock().lock();
+            }
+            return operation.get();
+        } finally {
+            while (locked > 0) {
+                stripes[--locked].readLock().unlock();
+            }
+            structure.readLock().unlock();
+        }
+    }
+
+    // Called without any lock held: a read lock cannot be upgraded to the write lock
+    private void applyDeferredRepositions() {
+        if (!momentumTracker().hasDeferredRepositions()) return;
+        structure.writeLock().lock();
+        try {
+            momentumTracker().applyDeferredRepositions(this::fireTaskChanged);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock stripeFor(Task root) {
+        int h = root.getId().hashCode();
+        h ^= (h >>> 16); // UUID strings differ mostly in their low bits, spread them anyway
+        return stripes[(h & 0x7fffffff) % stripes.length];
+    }
+}
@@ -0,0 +1,400 @@
+package com.todo.service;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-lived SQLite connections for DatabaseManager.
+ * SQLite only ever lets one connection write at a time, so the pool keeps exactly one writer
+ * plus a bounded set of read-only connections. All of them are opened once and configured
+ * through SQLiteConfig, instead of paying DriverManager + PRAGMA on every call.
+ * The SQLite tuning comes from a {@link DatabaseProfile}.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final long ACQUIRE_TIMEOUT_MS = 10_000;
+    private static final long LEAK_THRESHOLD_MS = 30_000;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 5_000;
+    // Connections idle for longer than this are validated before they are handed out again
+    private static final long VALIDATE_AFTER_IDLE_MS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final String url;
+    private final DatabaseProfile profile;
+    private final SQLiteConfig writerConfig;
+    private final SQLiteConfig readerConfig;
+
+    private final BlockingQueue<PooledConnection> writer = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<PooledConnection> readers;
+    private final List<PooledConnection> all = new ArrayList<>();
+
+    // Checked-out leases, scanned by the housekeeper for leaks
+    private final Set<Lease> outstanding = ConcurrentHashMap.newKeySet();
+    private final PoolMetrics metrics = new PoolMetrics();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+    // Writer checkouts already covered by a WAL checkpoint (housekeeper thread only)
+    private long checkpointedCheckouts = 0;
+
+    public ConnectionPool(String url, int readerCount) throws SQLException {
+        this(url, readerCount, DatabaseProfile.DEFAULT);
+    }
+
+    public ConnectionPool(String url, int readerCount, DatabaseProfile profile) throws SQLException {
+        if (readerCount < 1) throw new IllegalArgumentException("readerCount must be >= 1");
+        this.url = url;
+        this.profile = profile;
+
+        this.writerConfig = new SQLiteConfig();
+        writerConfig.enforceForeignKeys(true);
+        profile.apply(writerConfig, true);
+
+        this.readerConfig = new SQLiteConfig();
+        readerConfig.enforceForeignKeys(true);
+        readerConfig.setReadOnly(true);
+        profile.apply(readerConfig, false);
+
+        // The writer must exist first: it creates the database file that readers open read-only
+        PooledConnection w = open(true);
+        writer.add(w);
+        all.add(w);
+
+        this.readers = new ArrayBlockingQueue<>(readerCount);
+        for (int i = 0; i < readerCount; i++) {
+            PooledConnection r = open(false);
+            readers.add(r);
+            all.add(r);
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeeping,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check out the single writer connection. Close the lease to give it back.
+     */
+    public Lease acquireWriter() throws SQLException {
+        return acquire(writer, "writer");
+    }
+
+    /**
+     * Check out one of the read-only connections. Close the lease to give it back.
+     */
+    public Lease acquireReader() throws SQLException {
+        return acquire(readers, "reader");
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public DatabaseProfile getProfile() {
+        return profile;
+    }
+
+    private Lease acquire(BlockingQueue<PooledConnection> queue, String kind) throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        PooledConnection pc;
+        try {
+            pc = queue.poll(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a " + kind + " connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        metrics.recordWait(waited);
+
+        if (pc == null) {
+            metrics.timeouts.increment();
+            throw new SQLException("Timed out after " + ACQUIRE_TIMEOUT_MS + "ms waiting for a " + kind + " connection");
+        }
+
+        try {
+            ensureHealthy(pc);
+        } catch (SQLException e) {
+            // Put it back so the pool does not shrink; the next checkout will try to reopen it again
+            queue.offer(pc);
+            throw e;
+        }
+
+        if (pc.writer) metrics.writerCheckouts.increment();
+        Lease lease = new Lease(pc, queue);
+        outstanding.add(lease);
+        return lease;
+    }
+
+    private void ensureHealthy(PooledConnection pc) throws SQLException {
+        long idleMs = (System.nanoTime() - pc.lastReturnedNanos) / 1_000_000;
+        boolean broken = pc.connection.isClosed()
+                || (idleMs > VALIDATE_AFTER_IDLE_MS && !pc.connection.isValid(VALIDATION_TIMEOUT_SECONDS));
+        if (broken) {
+            reopen(pc);
+        }
+    }
+
+    private PooledConnection open(boolean forWriter) throws SQLException {
+        SQLiteConfig config = forWriter ? writerConfig : readerConfig;
+        return new PooledConnection(config.createConnection(url), forWriter);
+    }
+
+    private void reopen(PooledConnection pc) throws SQLException {
+        pc.statements.closeAll();
+        try {
+            pc.connection.close();
+        } catch (SQLException ignored) {
+            // Already broken, nothing useful to do
+        }
+        SQLiteConfig config = pc.writer ? writerConfig : readerConfig;
+        pc.connection = config.createConnection(url);
+        pc.statements = new StatementCache(pc.connection, STATEMENT_CACHE_SIZE);
+        pc.lastReturnedNanos = System.nanoTime();
+        metrics.reconnects.increment();
+        System.out.println("🔌 Reopened broken " + (pc.writer ? "writer" : "reader") + " connection.");
+    }
+
+    /**
+     * Validate every idle connection now. Returns false if any of them had to be reopened
+     * or could not be reopened.
+     */
+    public boolean healthCheck() {
+        boolean healthy = true;
+        for (BlockingQueue<PooledConnection> queue : List.of(writer, readers)) {
+            PooledConnection pc = queue.poll();
+            if (pc == null) continue; // busy, it will be validated on its next checkout
+            try {
+                if (pc.connection.isClosed() || !pc.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    healthy = false;
+                    reopen(pc);
+                }
+            } catch (SQLException e) {
+                healthy = false;
+                e.printStackTrace();
+            } finally {
+                queue.offer(pc);
+            }
+        }
+        return healthy;
+    }
+
+    private void housekeeping() {
+        long now = System.nanoTime();
+        for (Lease lease : outstanding) {
+            long heldMs = (now - lease.acquiredNanos) / 1_000_000;
+            if (heldMs > LEAK_THRESHOLD_MS && !lease.reportedAsLeak) {
+                lease.reportedAsLeak = true;
+                metrics.leaks.increment();
+                System.err.println("⚠️ Possible connection leak: " + (lease.pc.writer ? "writer" : "reader")
+                        + " held for " + heldMs + "ms by " + lease.ownerThread + ". Checked out at:");
+                lease.checkoutSite.printStackTrace();
+            }
+        }
+        healthCheck();
+        if (profile.usesWal()) {
+            checkpointIfIdle();
+        }
+    }
+
+    /**
+     * Fold the write-ahead log back into the database file while nobody is writing, so the log
+     * stays short and readers do not have to search a long one. PASSIVE never blocks readers;
+     * it just stops early at pages a reader still needs.
+     */
+    private void checkpointIfIdle() {
+        long writes = metrics.writerCheckouts.sum();
+        if (writes == checkpointedCheckouts) return; // nothing new since the last checkpoint
+        PooledConnection pc = writer.poll();
+        if (pc == null) return; // busy writing, try again next round
+        try {
+            long idleMs = (System.nanoTime() - pc.lastReturnedNanos) / 1_000_000;
+            if (idleMs < HOUSEKEEPING_INTERVAL_MS) return;
+            try (Statement stmt = pc.connection.createStatement()) {
+                stmt.execute("PRAGMA wal_checkpoint(PASSIVE)");
+            }
+            checkpointedCheckouts = writes;
+            metrics.checkpoints.increment();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            writer.offer(pc);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : all) {
+            pc.statements.closeAll();
+            try {
+                pc.connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Statement cache hits summed over every pooled connection.
+     */
+    public long getStatementCacheHits() {
+        long hits = 0;
+        for (PooledConnection pc : all) hits += pc.statements.getHits();
+        return hits;
+    }
+
+    /**
+     * Statement cache misses (i.e. real prepares) summed over every pooled connection.
+     */
+    public long getStatementCacheMisses() {
+        long misses = 0;
+        for (PooledConnection pc : all) misses += pc.statements.getMisses();
+        return misses;
+    }
+
+    private static class PooledConnection {
+        Connection connection;
+        StatementCache statements;
+        final boolean writer;
+        volatile long lastReturnedNanos = System.nanoTime();
+
+        PooledConnection(Connection connection, boolean writer) {
+            this.connection = connection;
+            this.statements = new StatementCache(connection, STATEMENT_CACHE_SIZE);
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * A checked-out connection. Always use it in try-with-resources; closing the lease returns
+     * the connection to the pool (it does not close the underlying SQLite connection).
+     */
+    public class Lease implements AutoCloseable {
+        private final PooledConnection pc;
+        private final BlockingQueue<PooledConnection> home;
+        private final long acquiredNanos = System.nanoTime();
+        private final String ownerThread = Thread.currentThread().getName();
+        // Captured up front so a leak report can point at the code that never gave the connection back
+        private final Throwable checkoutSite = new Throwable("connection checkout");
+        private volatile boolean reportedAsLeak = false;
+        private boolean returned = false;
+
+        private Lease(PooledConnection pc, BlockingQueue<PooledConnection> home) {
+            this.pc = pc;
+            this.home = home;
+        }
+
+        public Connection connection() {
+            if (returned) throw new IllegalStateException("Lease already returned to the pool");
+            return pc.connection;
+        }
+
+        /**
+         * Prepared statement from this connection's cache. Do not close it; close only
+         * the ResultSets it produces.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            if (returned) throw new IllegalStateException("Lease already returned to the pool");
+            return pc.statements.prepare(sql);
+        }
+
+        @Override
+        public void close() {
+            if (returned) return;
+            returned = true;
+
+            // Never hand out a connection with a half-finished transaction
+            try {
+                if (!pc.connection.isClosed() && !pc.connection.getAutoCommit()) {
+                    pc.connection.rollback();
+                    pc.connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+
+            metrics.recordCheckout(System.nanoTime() - acquiredNanos);
+            outstanding.remove(this);
+            pc.lastReturnedNanos = System.nanoTime();
+            home.offer(pc);
+        }
+    }
+
+    /**
+     * Pool-level counters. Times are tracked in nanoseconds and reported in milliseconds.
+     */
+    public static class PoolMetrics {
+        private final LongAdder checkouts = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder totalCheckoutNanos = new LongAdder();
+        private final AtomicLong maxCheckoutNanos = new AtomicLong();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder leaks = new LongAdder();
+        private final LongAdder reconnects = new LongAdder();
+        private final LongAdder writerCheckouts = new LongAdder();
+        private final LongAdder checkpoints = new LongAdder();
+
+        void recordWait(long nanos) {
+            totalWaitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void recordCheckout(long nanos) {
+            checkouts.increment();
+            totalCheckoutNanos.add(nanos);
+            maxCheckoutNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCheckouts() { return checkouts.sum(); }
+        public long getTimeouts() { return timeouts.sum(); }
+        public long getLeaks() { return leaks.sum(); }
+        public long getReconnects() { return reconnects.sum(); }
+        public long getCheckpoints() { return checkpoints.sum(); }
+
+        public double getAverageWaitMillis() {
+            long n = checkouts.sum();
+            return n == 0 ? 0 : totalWaitNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+        public double getAverageCheckoutMillis() {
+            long n = checkouts.sum();
+            return n == 0 ? 0 : totalCheckoutNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getMaxCheckoutMillis() { return maxCheckoutNanos.get() / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("checkouts=%d wait(avg=%.3fms max=%.3fms) held(avg=%.3fms max=%.3fms) timeouts=%d leaks=%d reconnects=%d checkpoints=%d",
+                    getCheckouts(), getAverageWaitMillis(), getMaxWaitMillis(),
+                    getAverageCheckoutMillis(), getMaxCheckoutMillis(),
+                    getTimeouts(), getLeaks(), getReconnects(), getCheckpoints());
+        }
+    }
+}
@@ -1,90 +1,328 @@
 package com.todo.service;
 
+import com.todo.model.CategoryDictionary;
 import com.todo.model.Priority;
 import com.todo.model.Status;
 import com.todo.model.Task;
 import com.todo.ds.DoublyLinkedList;
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.store.TaskStore;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DatabaseManager {
-    // SQLite connection string
-    private static final String URL = "jdbc:sqlite:smart_todo.db";
+    // SQLite connection string (-Dtodo.dbUrl overrides it, e.g. for benchmarks on scratch files)
+    private static String url = System.getProperty("todo.dbUrl", "jdbc:sqlite:smart_todo.db");
+    private static final int READER_CONNECTIONS = 4;
 
-    public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(URL);
-        // SQLite foreign keys are disabled by default. We must enable them per connection.
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute("PRAGMA foreign_keys = ON;");
+    private static ConnectionPool pool;
+    // Category ids of the open database; replaced along with the pool
+    private static CategoryTable categories;
+    private static boolean shutdownHookRegistered = false;
+    private static final List<Runnable> beforeClose = new ArrayList<>();
+
+    // Hot statements, prepared once per pooled connection through its StatementCache
+    static final String UPSERT_TASK_SQL =
+            "INSERT INTO tasks (id, name, category_id, deadline, priority, status, momentum, parent_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(id) DO UPDATE SET " +
+            "name=excluded.name, " +
+            "category_id=excluded.category_id, " +
+            "deadline=excluded.deadline, " +
+            "priority=excluded.priority, " +
+            "status=excluded.status, " +
+            "momentum=excluded.momentum, " +
+            "parent_id=excluded.parent_id";
+    static final String DELETE_TASK_SQL = "DELETE FROM tasks WHERE id = ?";
+    private static final String SELECT_ALL_TASKS_SQL = "SELECT * FROM tasks";
+    static final String SELECT_TASK_SQL = "SELECT * FROM tasks WHERE id = ?";
+    static final String SELECT_CHILDREN_SQL = "SELECT * FROM tasks WHERE parent_id = ?";
+    static final String SELECT_FIRST_PAGE_SQL =
+            "SELECT * FROM tasks WHERE parent_id IS NULL ORDER BY momentum DESC, id LIMIT ?";
+    static final String SELECT_NEXT_PAGE_SQL =
+            "SELECT * FROM tasks WHERE parent_id IS NULL AND (momentum < ? OR (momentum = ? AND id > ?)) " +
+            "ORDER BY momentum DESC, id LIMIT ?";
+    static final String SELECT_IDS_BY_PREFIX_SQL =
+            "SELECT id FROM tasks WHERE id >= ? AND id < ? ORDER BY id LIMIT ?";
+    static final String SELECT_TOP_LEVEL_IDS_BY_PREFIX_SQL =
+            "SELECT id FROM tasks WHERE id >= ? AND id < ? AND parent_id IS NULL ORDER BY id LIMIT ?";
+    // Full-text search (see searchTasks): the matches from a seq on ranked, only the first
+    // LIMIT looked up in tasks. The index's rowid is the task's seq (SchemaMigrations v5).
+    // With a rank window the first query finds where it starts. CROSS JOIN keeps tasks_fts
+    // as the outer loop: otherwise statistics can lead SQLite to walk tasks by seq from the
+    // window start and run the MATCH once per row.
+    static final String SEARCH_WINDOW_START_SQL =
+            "SELECT rowid FROM tasks_fts WHERE tasks_fts MATCH ? ORDER BY rowid DESC LIMIT 1 OFFSET ?";
+    static final String SEARCH_TASKS_SQL =
+            "SELECT t.* FROM tasks_fts CROSS JOIN tasks t ON t.seq = tasks_fts.rowid " +
+            "WHERE tasks_fts MATCH ? AND tasks_fts.rowid >= ? ORDER BY tasks_fts.rank LIMIT ?";
+
+    // Rows per executeBatch call; a whole save still runs in one transaction
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    /**
+     * The shared connection pool, opened on first use and closed when the JVM exits.
+     * Foreign keys and the {@link DatabaseProfile} (-Dtodo.dbProfile) are applied once per
+     * pooled connection through SQLiteConfig.
+     */
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            pool = new ConnectionPool(url, READER_CONNECTIONS, DatabaseProfile.fromSystemProperty());
+            categories = new CategoryTable();
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread(DatabaseManager::shutdown, "db-shutdown"));
+                shutdownHookRegistered = true;
+            }
+        }
+        return pool;
+    }
+
+    // The category mirror of the pool's database (opens the pool if needed)
+    static synchronized CategoryTable categories() throws SQLException {
+        getPool();
+        return categories;
+    }
+
+    /**
+     * Switch to another database. Runs {@link #shutdown()} first, so pending work for the
+     * current database is finished and its pool closed; the new one opens on next use.
+     */
+    public static void useDatabase(String newUrl) {
+        shutdown();
+        synchronized (DatabaseManager.class) {
+            url = newUrl;
+        }
+    }
+
+    /**
+     * Register work that must finish while the pool is still open, e.g. draining a
+     * write-behind queue. Runs from {@link #shutdown()}, in registration order.
+     */
+    public static synchronized void onShutdown(Runnable action) {
+        beforeClose.add(action);
+    }
+
+    /**
+     * Run the registered shutdown actions, then close the pool. Also runs on JVM exit.
+     */
+    public static void shutdown() {
+        List<Runnable> actions;
+        synchronized (DatabaseManager.class) {
+            actions = new ArrayList<>(beforeClose);
+            beforeClose.clear();
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (DatabaseManager.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+                categories = null;
+            }
         }
-        return conn;
     }
 
+    /**
+     * Create or upgrade the schema (see SchemaMigrations).
+     */
     public static void initializeDatabase() {
-        String createTasksTable = "CREATE TABLE IF NOT EXISTS tasks (" +
-                "id TEXT PRIMARY KEY, " +
-                "name TEXT NOT NULL, " +
-                "category TEXT, " +
-                "deadline TEXT, " +
-                "priority TEXT, " +
-                "status TEXT, " +
-                "momentum INTEGER DEFAULT 0, " +
-                "parent_id TEXT, " +
-                "FOREIGN KEY (parent_id) REFERENCES tasks(id) ON DELETE CASCADE" +
-                ");";
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(createTasksTable);
+        try (ConnectionPool.Lease lease = getPool().acquireWriter()) {
+            int from = SchemaMigrations.migrate(lease.connection());
+            if (from < SchemaMigrations.latestVersion()) {
+                System.out.println("📦 Database schema upgraded to v" + SchemaMigrations.latestVersion() + ".");
+            }
             System.out.println("📦 Database initialized.");
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Write a consistent copy of the whole database to a new file (VACUUM INTO), without
+     * blocking readers. The target must not exist yet.
+     */
+    public static void snapshotTo(Path target) throws IOException {
+        try (ConnectionPool.Lease lease = getPool().acquireWriter();
+             PreparedStatement stmt = lease.connection().prepareStatement("VACUUM INTO ?")) {
+            stmt.setString(1, target.toAbsolutePath().toString());
+            stmt.execute();
+        } catch (SQLException e) {
+            throw new IOException("Could not snapshot the database to " + target, e);
+        }
+    }
+
     public static void saveTask(Task task, String parentId) {
-        String query = "INSERT INTO tasks (id, name, category, deadline, priority, status, momentum, parent_id) " +
-                       "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                       "ON CONFLICT(id) DO UPDATE SET " +
-                       "name=excluded.name, " +
-                       "category=excluded.category, " +
-                       "deadline=excluded.deadline, " +
-                       "priority=excluded.priority, " +
-                       "status=excluded.status, " +
-                       "momentum=excluded.momentum, " +
-                       "parent_id=excluded.parent_id";
-
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, task.getId());
-            stmt.setString(2, task.getName());
-            stmt.setString(3, task.getCategory());
-            stmt.setString(4, task.getDeadline() != null ? task.getDeadline().toString() : null);
-            stmt.setString(5, task.getPriority().name());
-            stmt.setString(6, task.getStatus().name());
-            stmt.setInt(7, task.getMomentum());
-            stmt.setString(8, parentId);
+        // Failures are already reported by saveTaskTree
+        saveTaskTree(task, parentId);
+    }
 
-            stmt.executeUpdate();
+    /**
+     * Save a task and its whole subtask tree in a single transaction, as batched upserts.
+     */
+    public static BatchResult saveTaskTree(Task root, String parentId) {
+        List<TaskWrite> writes = new ArrayList<>();
+        collectTree(root, parentId, writes);
+        return applyWrites(writes);
+    }
 
-            // Recursively save subtasks
-            if (task.getSubtasks() != null) {
-                task.getSubtasks().forEach(sub -> saveTask(sub, task.getId()));
+    /**
+     * Save exactly the given tasks (not their subtasks) in a single transaction,
+     * each one under its own parent id.
+     */
+    public static BatchResult saveTasks(Collection<Task> tasks) {
+        List<TaskWrite> writes = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            writes.add(TaskWrite.upsert(task, task.getParentId()));
+        }
+        return applyWrites(writes);
+    }
+
+    /**
+     * Write only the tasks with unsaved changes, and only their changed columns,
+     * in a single transaction. Rows that commit are marked clean.
+     */
+    public static BatchResult saveDirtyTasks(Collection<Task> tasks) {
+        List<TaskWrite> writes = new ArrayList<>();
+        Map<String, Task> byId = new HashMap<>();
+        for (Task task : tasks) {
+            TaskWrite write = TaskWrite.changes(task);
+            if (write == null) continue;
+            writes.add(write);
+            byId.put(task.getId(), task);
+        }
+        BatchResult result = applyWrites(writes);
+        if (result.isCommitted()) {
+            for (BatchResult.RowOutcome row : result.getRows()) {
+                if (row.getOutcome() == BatchResult.Outcome.WRITTEN) {
+                    byId.get(row.getTaskId()).markClean();
+                }
             }
+        }
+        return result;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    // Pre-order walk so parents are always written before their children (foreign key)
+    static void collectTree(Task task, String parentId, List<TaskWrite> writes) {
+        writes.add(TaskWrite.upsert(task, parentId));
+        NodeList<Task> subtasks = task.getSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            collectTree(sub.data, task.getId(), writes);
+        }
+    }
+
+    /**
+     * Run a list of upserts/deletes in order, in one transaction (group commit).
+     */
+    static BatchResult applyWrites(List<TaskWrite> writes) {
+        int n = writes.size();
+        BatchResult.Outcome[] outcomes = new BatchResult.Outcome[n];
+        long[] counts = new long[n];
+        SQLException[] errors = new SQLException[n];
+        BatchResult result = new BatchResult();
+
+        if (n > 0) {
+            try (ConnectionPool.Lease lease = getPool().acquireWriter()) {
+                Connection conn = lease.connection();
+                CategoryTable categories = categories();
+                categories.ensure(lease, writes);
+                conn.setAutoCommit(false);
+                try {
+                    try {
+                        executeBatched(lease, categories, writes, counts);
+                        Arrays.fill(outcomes, BatchResult.Outcome.WRITTEN);
+                    } catch (SQLException batchError) {
+                        // SQLite stops at the first bad row without saying which one it was,
+                        // so redo the rows one at a time to find out which of them are at fault
+                        conn.rollback();
+                        executeRowByRow(lease, categories, writes, outcomes, counts, errors);
+                    }
+                    conn.commit();
+                    result.setCommitted(true);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                result.setError(e);
+            }
+        } else {
+            result.setCommitted(true);
+        }
+
+        for (int i = 0; i < n; i++) {
+            BatchResult.Outcome outcome = outcomes[i];
+            if (!result.isCommitted() && outcome != BatchResult.Outcome.FAILED) {
+                outcome = BatchResult.Outcome.ROLLED_BACK;
+            }
+            result.add(new BatchResult.RowOutcome(writes.get(i).getTaskId(), outcome, counts[i], errors[i]));
+        }
+        return result;
+    }
+
+    // Consecutive writes that share a statement go out as one executeBatch (up to BATCH_CHUNK_SIZE rows)
+    private static void executeBatched(ConnectionPool.Lease lease, CategoryTable categories,
+                                       List<TaskWrite> writes, long[] counts) throws SQLException {
+        int runStart = 0;
+        while (runStart < writes.size()) {
+            String sql = writes.get(runStart).sql();
+            PreparedStatement stmt = lease.prepare(sql);
+            int runEnd = runStart;
+            try {
+                while (runEnd < writes.size()
+                        && runEnd - runStart < BATCH_CHUNK_SIZE
+                        && writes.get(runEnd).sql().equals(sql)) {
+                    writes.get(runEnd).bind(stmt, categories);
+                    stmt.addBatch();
+                    runEnd++;
+                }
+                int[] runCounts = stmt.executeBatch();
+                for (int j = 0; j < runCounts.length; j++) {
+                    counts[runStart + j] = runCounts[j];
+                }
+            } finally {
+                stmt.clearBatch();
+            }
+            runStart = runEnd;
+        }
+    }
+
+    private static void executeRowByRow(ConnectionPool.Lease lease, CategoryTable categories,
+                                        List<TaskWrite> writes, BatchResult.Outcome[] outcomes,
+                                        long[] counts, SQLException[] errors) throws SQLException {
+        for (int i = 0; i < writes.size(); i++) {
+            TaskWrite write = writes.get(i);
+            try {
+                PreparedStatement stmt = lease.prepare(write.sql());
+                write.bind(stmt, categories);
+                counts[i] = stmt.executeUpdate();
+                outcomes[i] = BatchResult.Outcome.WRITTEN;
+            } catch (SQLException e) {
+                // A failed statement only rolls back itself; the rest of the transaction goes on
+                outcomes[i] = BatchResult.Outcome.FAILED;
+                errors[i] = e;
+                System.out.println("❌ Could not write task " + write.getTaskId() + ": " + e.getMessage());
+            }
         }
     }
 
     public static void deleteTask(String id) {
-        String query = "DELETE FROM tasks WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = getPool().acquireWriter()) {
+            PreparedStatement stmt = lease.prepare(DELETE_TASK_SQL);
             stmt.setString(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -96,26 +334,12 @@ public class DatabaseManager {
         DoublyLinkedList<Task> allTasks = new DoublyLinkedList<>();
         Map<String, Task> taskMap = new HashMap<>();
 
-        String query = "SELECT * FROM tasks";
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
+        try (ConnectionPool.Lease lease = getPool().acquireReader();
+             ResultSet rs = lease.prepare(SELECT_ALL_TASKS_SQL).executeQuery()) {
+            CategoryTable categories = categories();
             while (rs.next()) {
-                String id = rs.getString("id");
-                String name = rs.getString("name");
-                String category = rs.getString("category");
-                String deadlineStr = rs.getString("deadline");
-                LocalDate deadline = (deadlineStr != null) ? LocalDate.parse(deadlineStr) : null;
-                Priority priority = Priority.valueOf(rs.getString("priority"));
-                Status status = Status.valueOf(rs.getString("status"));
-                int momentum = rs.getInt("momentum");
-                String parentId = rs.getString("parent_id");
-
-                Task task = new Task(id, name, category, deadline, priority, status, momentum);
-                task.setParentId(parentId);
-
+                Task task = readTask(rs, lease, categories);
+                String id = task.getId();
                 taskMap.put(id, task);
             }
 
@@ -137,4 +361,215 @@ public class DatabaseManager {
 
         return allTasks;
     }
+
+    /**
+     * Load every task straight into a TaskStore, without creating Task objects.
+     * Subtasks are linked once all rows are in, since a child row may come before its parent.
+     * Rows arrive clean. Returns the number of rows loaded.
+     */
+    public static int loadAllTasks(TaskStore store) {
+        int first = store.rowCount();
+        List<String> parentIds = new ArrayList<>();
+        try (ConnectionPool.Lease lease = getPool().acquireReader();
+             ResultSet rs = lease.prepare(SELECT_ALL_TASKS_SQL).executeQuery()) {
+            CategoryTable categories = categories();
+            while (rs.next()) {
+                String deadline = rs.getString("deadline");
+                String category = CategoryDictionary.name(categories.codeOf(rs.getInt("category_id"), lease));
+                store.add(rs.getString("id"), rs.getString("name"), category,
+                        deadline != null ? LocalDate.parse(deadline) : null,
+                        Priority.valueOf(rs.getString("priority")), Status.valueOf(rs.getString("status")),
+                        rs.getInt("momentum"));
+                parentIds.add(rs.getString("parent_id"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        for (int i = 0; i < parentIds.size(); i++) {
+            String parentId = parentIds.get(i);
+            if (parentId == null) continue;
+            int parentRow = store.find(parentId);
+            if (parentRow != TaskStore.NO_ROW) {
+                store.linkSubtask(parentRow, first + i);
+            } else {
+                store.remove(first + i); // orphan: loadAllTasks() drops these too
+            }
+        }
+        store.trimToSize();
+        return parentIds.size();
+    }
+
+    /**
+     * One page of top-level tasks, hottest first. Keyset pagination: pass the momentum and
+     * id of the last task of the previous page (null for the first page), so every page
+     * costs the same no matter how deep into the table it is.
+     * Subtasks are not loaded.
+     */
+    public static List<Task> loadTopLevelPage(Integer afterMomentum, String afterId, int limit) {
+        List<Task> page = new ArrayList<>(limit);
+        try (ConnectionPool.Lease lease = getPool().acquireReader()) {
+            CategoryTable categories = categories();
+            PreparedStatement stmt;
+            if (afterMomentum == null) {
+                stmt = lease.prepare(SELECT_FIRST_PAGE_SQL);
+                stmt.setInt(1, limit);
+            } else {
+                stmt = lease.prepare(SELECT_NEXT_PAGE_SQL);
+                stmt.setInt(1, afterMomentum);
+                stmt.setInt(2, afterMomentum);
+                stmt.setString(3, afterId);
+                stmt.setInt(4, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(readTask(rs, lease, categories));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return page;
+    }
+
+    /**
+     * Direct children of a task (their own subtasks are not loaded).
+     */
+    public static List<Task> loadSubtasks(String parentId) {
+        List<Task> subtasks = new ArrayList<>();
+        try (ConnectionPool.Lease lease = getPool().acquireReader()) {
+            CategoryTable categories = categories();
+            PreparedStatement stmt = lease.prepare(SELECT_CHILDREN_SQL);
+            stmt.setString(1, parentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    subtasks.add(readTask(rs, lease, categories));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return subtasks;
+    }
+
+    /**
+     * A single task row (without subtasks), or null.
+     */
+    public static Task loadTask(String id) {
+        try {
+            return findTask(id);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Same, but a failed read throws instead of looking like a missing row.
+     */
+    static Task findTask(String id) throws SQLException {
+        try (ConnectionPool.Lease lease = getPool().acquireReader()) {
+            CategoryTable categories = categories();
+            PreparedStatement stmt = lease.prepare(SELECT_TASK_SQL);
+            stmt.setString(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? readTask(rs, lease, categories) : null;
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} task rows (without subtasks) whose name or category matches the
+     * search text, best first. See TaskSearch for what the text means.
+     *
+     * Every match is ranked unless {@code rankWindow} is positive. Ranking is what costs: bm25
+     * scores every match it is given, and a word like "report" can match a third of a million
+     * archived tasks (340-670 ms over a million tasks). With a window only the newest
+     * {@code rankWindow} matches (by seq, i.e. the most recently stored rows) are ranked,
+     * which keeps such a search within a few tens of milliseconds for a window of 2,000, but
+     * an older row that would have ranked higher is then not found at all.
+     */
+    public static List<Task> searchTasks(String text, int limit, int rankWindow) {
+        List<Task> found = new ArrayList<>();
+        String match = TaskSearch.matchExpression(text);
+        if (match == null) return found;
+        try (ConnectionPool.Lease lease = getPool().acquireReader()) {
+            CategoryTable categories = categories();
+            long windowStart = Long.MIN_VALUE; // no window: rank every match
+            if (rankWindow > 0) {
+                PreparedStatement window = lease.prepare(SEARCH_WINDOW_START_SQL);
+                window.setString(1, match);
+                window.setInt(2, rankWindow - 1);
+                try (ResultSet rs = window.executeQuery()) {
+                    if (rs.next()) windowStart = rs.getLong(1);
+                }
+            }
+            PreparedStatement stmt = lease.prepare(SEARCH_TASKS_SQL);
+            stmt.setString(1, match);
+            stmt.setLong(2, windowStart);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    found.add(readTask(rs, lease, categories));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return found;
+    }
+
+    /**
+     * Merge the full-text index into a single segment. Searches get faster, most for
+     * selective ones; worth running after loading or archiving many tasks at once.
+     * Takes a couple of seconds per million tasks and holds the writer meanwhile.
+     */
+    public static void optimizeSearchIndex() {
+        try (ConnectionPool.Lease lease = getPool().acquireWriter();
+             Statement stmt = lease.connection().createStatement()) {
+            stmt.execute("INSERT INTO tasks_fts (tasks_fts) VALUES ('optimize')");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Up to {@code limit} ids starting with the prefix, in id order. Uses the primary key
+     * as a range (prefix <= id < prefix + U+FFFF) rather than LIKE, so it stays an index seek.
+     */
+    public static List<String> findIdsByPrefix(String prefix, int limit, boolean topLevelOnly) {
+        List<String> ids = new ArrayList<>();
+        try (ConnectionPool.Lease lease = getPool().acquireReader()) {
+            PreparedStatement stmt = lease.prepare(topLevelOnly ? SELECT_TOP_LEVEL_IDS_BY_PREFIX_SQL : SELECT_IDS_BY_PREFIX_SQL);
+            stmt.setString(1, prefix);
+            stmt.setString(2, prefix + Character.MAX_VALUE);
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    private static Task readTask(ResultSet rs, ConnectionPool.Lease lease, CategoryTable categories) throws SQLException {
+        String id = rs.getString("id");
+        String name = rs.getString("name");
+        // The dictionary's own String, not a new one per row
+        String category = CategoryDictionary.name(categories.codeOf(rs.getInt("category_id"), lease));
+        String deadlineStr = rs.getString("deadline");
+        LocalDate deadline = (deadlineStr != null) ? LocalDate.parse(deadlineStr) : null;
+        Priority priority = Priority.valueOf(rs.getString("priority"));
+        Status status = Status.valueOf(rs.getString("status"));
+        int momentum = rs.getInt("momentum");
+        String parentId = rs.getString("parent_id");
+
+        Task task = new Task(id, name, category, deadline, priority, status, momentum);
+        task.setParentId(parentId);
+        task.markClean();
+        return task;
+    }
 }
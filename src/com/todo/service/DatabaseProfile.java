@@ -0,0 +1,61 @@
+package com.todo.service;
+
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Named SQLite tuning profiles, applied to every pooled connection through SQLiteConfig.
+ * Selected at startup with {@code -Dtodo.dbProfile=DEFAULT|PERFORMANCE}.
+ *
+ * - DEFAULT: rollback journal and full fsync on every commit (SQLite's own defaults).
+ *   Readers and the writer block each other.
+ * - PERFORMANCE: write-ahead log, so readers never block the writer and the writer never
+ *   blocks readers; synchronous=NORMAL only fsyncs at checkpoints (a power cut can lose the
+ *   last commits, never corrupt the file); memory-mapped reads, a bigger page cache and
+ *   in-memory temp tables. The pool checkpoints the log whenever the writer is idle.
+ */
+public enum DatabaseProfile {
+
+    DEFAULT(SQLiteConfig.JournalMode.DELETE, SQLiteConfig.SynchronousMode.FULL, 0, -2_000, SQLiteConfig.TempStore.DEFAULT),
+    PERFORMANCE(SQLiteConfig.JournalMode.WAL, SQLiteConfig.SynchronousMode.NORMAL, 256L << 20, -16_000, SQLiteConfig.TempStore.MEMORY);
+
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    private final SQLiteConfig.JournalMode journalMode;
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final long mmapSizeBytes;
+    // Negative: KiB rather than pages, so it does not depend on the page size
+    private final int cacheSize;
+    private final SQLiteConfig.TempStore tempStore;
+
+    DatabaseProfile(SQLiteConfig.JournalMode journalMode, SQLiteConfig.SynchronousMode synchronous,
+                    long mmapSizeBytes, int cacheSize, SQLiteConfig.TempStore tempStore) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+    }
+
+    public boolean usesWal() {
+        return journalMode == SQLiteConfig.JournalMode.WAL;
+    }
+
+    /**
+     * The journal mode is stored in the database file, so only the writer sets it
+     * (a read-only connection cannot); everything else is per connection.
+     */
+    void apply(SQLiteConfig config, boolean writer) {
+        if (writer) {
+            config.setJournalMode(journalMode);
+        }
+        config.setSynchronous(synchronous);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSizeBytes));
+        config.setCacheSize(cacheSize);
+        config.setTempStore(tempStore);
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+    }
+
+    public static DatabaseProfile fromSystemProperty() {
+        return valueOf(System.getProperty("todo.dbProfile", PERFORMANCE.name()));
+    }
+}
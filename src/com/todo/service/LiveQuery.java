@@ -0,0 +1,230 @@
+package com.todo.service;
+
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The result of a TaskQuery, kept up to date as tasks change instead of re-running the query.
+ *
+ * A changed task is tested again and, if its sort key moved, taken out and put back by binary
+ * search: O(log n) to find the row plus one array shift, and the Listener hears about just
+ * that row. Every member's sort key is kept as it was when the task was placed, so its row can
+ * still be found after the task itself has changed. Only {@link TaskListener#tasksChanged} (bulk
+ * decay and promotion, which may touch every task) re-evaluates everything.
+ *
+ * Not thread-safe: call it from one thread. {@link #listenerFor} makes a TaskListener that
+ * takes what the query needs on the service's thread and applies it on another (the EDT).
+ */
+public class LiveQuery {
+
+    /**
+     * Told about every row change, right after it is made. Indexes are result rows.
+     */
+    public interface Listener {
+        void inserted(int index);
+
+        void removed(int index);
+
+        void changed(int index);
+
+        /**
+         * Everything may have changed.
+         */
+        void reset();
+    }
+
+    // A member task and the sort key it was placed with
+    private static final class Row {
+        final Task task;
+        final Comparable<?> key;
+
+        Row(Task task, Comparable<?> key) {
+            this.task = task;
+            this.key = key;
+        }
+    }
+
+    private TaskQuery query = TaskQuery.ALL;
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<Task, Row> members = new IdentityHashMap<>();
+    private Listener listener = new Listener() {
+        @Override public void inserted(int index) { }
+        @Override public void removed(int index) { }
+        @Override public void changed(int index) { }
+        @Override public void reset() { }
+    };
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public TaskQuery getQuery() {
+        return query;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Task get(int index) {
+        return rows.get(index).task;
+    }
+
+    /**
+     * Run a (new) query over every candidate, e.g. all loaded tasks. O(n log n).
+     */
+    public void reset(TaskQuery query, Collection<Task> candidates) {
+        this.query = query;
+        rows.clear();
+        members.clear();
+        for (Task task : candidates) {
+            if (query.matches(task)) {
+                Row row = new Row(task, query.keyOf(task));
+                rows.add(row);
+                members.put(task, row);
+            }
+        }
+        rows.sort((a, b) -> query.compare(a.key, a.task, b.key, b.task));
+        listener.reset();
+    }
+
+    /**
+     * These tasks joined the list (a new task, or an undeleted one with its subtree).
+     */
+    public void added(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            if (!members.containsKey(task) && query.matches(task)) insert(task);
+        }
+    }
+
+    /**
+     * These tasks left the list.
+     */
+    public void removed(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            Row row = members.remove(task);
+            if (row != null) removeRow(row);
+        }
+    }
+
+    /**
+     * A task's fields changed: it may join, leave or move within the result.
+     */
+    public void changed(Task task) {
+        Row row = members.get(task);
+        boolean matches = query.matches(task);
+        if (row != null) {
+            if (matches && compareKeys(row.key, query.keyOf(task)) == 0) {
+                listener.changed(indexOf(row));
+                return;
+            }
+            members.remove(task);
+            removeRow(row);
+        }
+        if (matches) insert(task);
+    }
+
+    private void insert(Task task) {
+        Row row = new Row(task, query.keyOf(task));
+        int at = -(search(row) + 1);
+        rows.add(at, row);
+        members.put(task, row);
+        listener.inserted(at);
+    }
+
+    private void removeRow(Row row) {
+        int at = indexOf(row);
+        rows.remove(at);
+        listener.removed(at);
+    }
+
+    private int indexOf(Row row) {
+        int at = search(row);
+        if (at < 0 || rows.get(at) != row) throw new IllegalStateException("Row not where its key says");
+        return at;
+    }
+
+    // Collections.binarySearch contract: the index, or -(insertion point) - 1
+    private int search(Row row) {
+        int lo = 0;
+        int hi = rows.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            Row r = rows.get(mid);
+            int c = query.compare(r.key, r.task, row.key, row.task);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Comparable a, Comparable b) {
+        if (a == b) return 0;
+        if (a == null || b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * A listener for {@code service} that feeds this query through {@code deliver}. The
+     * subtrees of added and removed tasks (and, after a bulk change, every loaded task) are read
+     * on the service's thread, where the event fires; the query is updated wherever
+     * {@code deliver} runs it, e.g. SwingUtilities::invokeLater.
+     */
+    public TaskListener listenerFor(TodoService service, Executor deliver) {
+        return new TaskListener() {
+            @Override
+            public void taskAdded(Task task, Task parent) {
+                List<Task> tree = treeOf(task);
+                deliver.execute(() -> added(tree));
+            }
+
+            @Override
+            public void taskRemoved(Task task, Task parent) {
+                List<Task> tree = treeOf(task);
+                deliver.execute(() -> removed(tree));
+            }
+
+            @Override
+            public void taskChanged(Task task, Task parent) {
+                deliver.execute(() -> changed(task));
+            }
+
+            @Override
+            public void tasksChanged() {
+                // Walks the lists itself: listeners must not call back into the service
+                List<Task> all = new ArrayList<>();
+                for (Task t : service.getTasks()) {
+                    collect(t, all);
+                }
+                deliver.execute(() -> reset(query, all));
+            }
+        };
+    }
+
+    /**
+     * A task and its loaded descendants, parents first.
+     */
+    public static List<Task> treeOf(Task task) {
+        List<Task> tree = new ArrayList<>();
+        collect(task, tree);
+        return tree;
+    }
+
+    static void collect(Task task, List<Task> tree) {
+        tree.add(task);
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            collect(sub.data, tree);
+        }
+    }
+}
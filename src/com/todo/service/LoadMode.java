@@ -0,0 +1,11 @@
+package com.todo.service;
+
+/**
+ * How TodoService brings tasks into memory at startup.
+ * - EAGER: every task and subtask, in one query (the original behaviour)
+ * - LAZY: top-level tasks one page at a time in momentum order, subtasks on first access
+ */
+public enum LoadMode {
+    EAGER,
+    LAZY
+}
@@ -2,21 +2,33 @@ package com.todo.service;
 
 import com.todo.ds.DoublyLinkedList;
 import com.todo.ds.Node;
+import com.todo.ds.OrderStatisticTree;
 import com.todo.model.Task;
+import com.todo.store.TaskStore;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  *  Task Momentum System
- * Tracks task "heat" and automatically reorders tasks in DLL based on momentum
+ * Tracks task "heat" and automatically reorders tasks in DLL based on momentum.
+ * The order lives in an OrderStatisticTree linked to the DLL nodes, so a single
+ * momentum change costs O(log n) and rank / top-K queries come for free.
  */
 public class MomentumTracker {
 
-    // Store last interaction time for each task
-    private final Map<String, LocalDateTime> lastInteractionMap = new HashMap<>();
+    // Store last interaction time for each task (concurrent: interactions on different
+    // subtrees are recorded in parallel by ConcurrentTodoService)
+    private final Map<String, LocalDateTime> lastInteractionMap = new ConcurrentHashMap<>();
 
     // Momentum configuration constants
     private static final int MOMENTUM_WORK_BOOST = 10;
@@ -26,6 +38,22 @@ public class MomentumTracker {
     private static final int MOMENTUM_THREE_DAY_DECAY = 15;
     private static final int MOMENTUM_WEEKLY_DECAY = 30;
 
+    // Momentum order of the tracked (top-level) list, mirrored by the DLL itself
+    private final OrderStatisticTree<OrderEntry> order = new OrderStatisticTree<>(
+            Comparator.<OrderEntry>comparingInt(e -> -e.momentum).thenComparingLong(e -> e.seq));
+    private final Map<String, OrderEntry> entries = new HashMap<>();
+    private DoublyLinkedList<Task> ordered;
+    private long highSeq = 0;
+    private long lowSeq = 0;
+    // Non-null once repositioning is deferred: momentum changes only queue the task here
+    private Set<Task> deferred;
+    // Decay and insights over at least this many top-level tasks run in parallel
+    private int parallelThreshold = TodoService.DEFAULT_PARALLEL_THRESHOLD;
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Record that user interacted with a task
      */
@@ -39,120 +67,253 @@ public class MomentumTracker {
         };
 
         task.setMomentum(task.getMomentum() + boost);
+        reposition(task);
         System.out.println("🔥 Task momentum increased by " + boost + " → " + task.getMomentum());
     }
 
     /**
-     * Apply time-based decay to all tasks
+     * Apply time-based decay to all tasks and their subtasks
      */
     public void applyDecay(DoublyLinkedList<Task> tasks) {
-        LocalDateTime now = LocalDateTime.now();
+        applyDecay(tasks, LocalDateTime.now());
+    }
+
+    /**
+     * The same decay over a TaskStore, in one pass over its columns. Interaction times come
+     * from the store (TaskStore.touch), not from this tracker.
+     */
+    public int applyDecay(TaskStore store) {
+        return store.applyDecay(LocalDateTime.now(), MOMENTUM_DAILY_DECAY, MOMENTUM_THREE_DAY_DECAY, MOMENTUM_WEEKLY_DECAY);
+    }
 
-        tasks.forEach(task -> {
-            LocalDateTime lastInteraction = lastInteractionMap.get(task.getId());
+    // Each top-level subtree is decayed by one thread; large lists spread the subtrees out
+    private void applyDecay(DoublyLinkedList<Task> tasks, LocalDateTime now) {
+        tasks.stream(parallelThreshold).forEach(task -> applyDecay(task, now));
+    }
 
-            if (lastInteraction == null) {
-                // First time seeing this task, initialize
-                lastInteractionMap.put(task.getId(), now);
-                return;
-            }
+    private void applyDecay(Task task, LocalDateTime now) {
+        for (Task sub : task.getLoadedSubtasks()) {
+            applyDecay(sub, now);
+        }
 
-            long daysSinceInteraction = ChronoUnit.DAYS.between(lastInteraction, now);
+        LocalDateTime lastInteraction = lastInteractionMap.get(task.getId());
 
-            if (daysSinceInteraction >= 7) {
-                task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_WEEKLY_DECAY));
-            } else if (daysSinceInteraction >= 3) {
-                task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_THREE_DAY_DECAY));
-            } else if (daysSinceInteraction >= 1) {
-                task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_DAILY_DECAY));
-            }
+        if (lastInteraction == null) {
+            // First time seeing this task, initialize
+            lastInteractionMap.put(task.getId(), now);
+            return;
+        }
+
+        long daysSinceInteraction = ChronoUnit.DAYS.between(lastInteraction, now);
+
+        if (daysSinceInteraction >= 7) {
+            task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_WEEKLY_DECAY));
+        } else if (daysSinceInteraction >= 3) {
+            task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_THREE_DAY_DECAY));
+        } else if (daysSinceInteraction >= 1) {
+            task.setMomentum(Math.max(0, task.getMomentum() - MOMENTUM_DAILY_DECAY));
+        }
+    }
+
+    /**
+     * Attach the tracker to the list it keeps ordered by momentum (hottest first).
+     * Sorts the list once; after that every momentum change repositions just the one
+     * task in O(log n) instead of re-sorting the whole list.
+     */
+    public void track(DoublyLinkedList<Task> tasks) {
+        this.ordered = tasks;
+        order.clear();
+        entries.clear();
+        highSeq = 0;
+        lowSeq = 0;
+
+        // Current list order breaks ties, like the stable bubble pass this replaces
+        for (Node<Task> node = tasks.getHead(); node != null; node = node.next) {
+            OrderEntry entry = new OrderEntry(node, node.data.getMomentum(), ++highSeq);
+            entries.put(node.data.getId(), entry);
+            order.insert(entry);
+        }
+
+        // Relink the DLL in tree order
+        class Cursor {
+            Node<Task> previous;
+        }
+        Cursor cursor = new Cursor();
+        order.forEach(entry -> {
+            tasks.moveAfter(entry.node, cursor.previous);
+            cursor.previous = entry.node;
         });
     }
 
     /**
-     * Reorder tasks in DLL based on momentum (bubble highest to top)
-     * Uses DLL's O(1) pointer swapping advantage!
+     * A node was added to the tracked list: slot it into momentum order.
      */
-    public void reorderByMomentum(DoublyLinkedList<Task> tasks) {
-        if (tasks.size() <= 1) return;
-
-        boolean swapped;
-        int swapCount = 0;
-
-        do {
-            swapped = false;
-            Node<Task> current = tasks.getHead();
-
-            while (current != null && current.next != null) {
-                if (current.data.getMomentum() < current.next.data.getMomentum()) {
-                    // Swap nodes in DLL - O(1) operation!
-                    swapNodes(tasks, current, current.next);
-                    swapped = true;
-                    swapCount++;
-                    // current stays the same (it's now in the next position)
-                } else {
-                    current = current.next;
-                }
-            }
-        } while (swapped);
+    public void onTaskAdded(Node<Task> node) {
+        if (ordered == null) return;
+        OrderEntry entry = new OrderEntry(node, node.data.getMomentum(), ++highSeq);
+        entries.put(node.data.getId(), entry);
+        order.insert(entry);
+        placeInList(entry);
+    }
 
-        if (swapCount > 0) {
-            System.out.println("🔄 Reordered " + swapCount + " tasks by momentum");
+    /**
+     * A node that was removed earlier is back in the tracked list (undo). Reusing its old
+     * tie-break key from {@link #orderKeyOf} puts it back at exactly the rank it had.
+     */
+    public void onTaskRestored(Node<Task> node, long orderKey) {
+        if (ordered == null) return;
+        if (orderKey == Long.MIN_VALUE || entries.containsKey(node.data.getId())) {
+            onTaskAdded(node);
+            return;
         }
+        OrderEntry entry = new OrderEntry(node, node.data.getMomentum(), orderKey);
+        entries.put(node.data.getId(), entry);
+        order.insert(entry);
+        placeInList(entry);
     }
 
     /**
-     * Swap two adjacent nodes in DLL - demonstrates O(1) pointer manipulation
+     * Tie-break key of a tracked task, to hand back to {@link #onTaskRestored};
+     * Long.MIN_VALUE if the task is not tracked.
      */
-    private void swapNodes(DoublyLinkedList<Task> list, Node<Task> node1, Node<Task> node2) {
-        if (node1 == null || node2 == null || node1.next != node2) return;
+    public long orderKeyOf(Task task) {
+        OrderEntry entry = entries.get(task.getId());
+        return entry == null ? Long.MIN_VALUE : entry.seq;
+    }
 
-        Node<Task> prevNode = node1.prev;
-        Node<Task> nextNode = node2.next;
+    /**
+     * A task was removed from the tracked list.
+     */
+    public void onTaskRemoved(Task task) {
+        OrderEntry entry = entries.remove(task.getId());
+        if (entry != null) order.remove(entry);
+    }
 
-        // Update head/tail if needed
-        if (node1 == list.getHead()) {
-            // node2 becomes new head
-            setHead(list, node2);
+    /**
+     * Move a tracked task to its place for its current momentum. O(log n).
+     * Returns true if its position in the order changed. Untracked tasks (subtasks) are ignored.
+     */
+    public boolean reposition(Task task) {
+        if (deferred != null) {
+            deferred.add(task);
+            return false;
         }
-        if (node2 == list.getTail()) {
-            // node1 becomes new tail
-            setTail(list, node1);
+        return repositionNow(task);
+    }
+
+    /**
+     * From now on {@link #reposition} only records which tasks changed, and the list is reordered
+     * by {@link #applyDeferredRepositions()}. Lets ConcurrentTodoService change momentum under a
+     * per-subtree lock and move nodes in the shared list later, under its exclusive lock.
+     * Recording is thread-safe; everything else here still needs the caller's locking.
+     */
+    public void deferRepositioning() {
+        if (deferred == null) deferred = ConcurrentHashMap.newKeySet();
+    }
+
+    public boolean hasDeferredRepositions() {
+        return deferred != null && !deferred.isEmpty();
+    }
+
+    /**
+     * Move every task queued since the last call to its place. Returns how many moved.
+     */
+    public int applyDeferredRepositions() {
+        return applyDeferredRepositions(task -> { });
+    }
+
+    /**
+     * Same, handing every task that moved to {@code onMoved}.
+     */
+    public int applyDeferredRepositions(Consumer<Task> onMoved) {
+        if (deferred == null) return 0;
+        int moved = 0;
+        for (Iterator<Task> it = deferred.iterator(); it.hasNext(); ) {
+            Task task = it.next();
+            it.remove();
+            if (repositionNow(task)) {
+                moved++;
+                onMoved.accept(task);
+            }
         }
+        return moved;
+    }
+
+    private boolean repositionNow(Task task) {
+        OrderEntry entry = entries.get(task.getId());
+        if (entry == null || entry.momentum == task.getMomentum()) return false;
+
+        int oldRank = order.rank(entry);
+        order.remove(entry);
+        // A task that heats up lands behind tasks of equal momentum, one that cools down lands
+        // ahead of them: the same result the old bubble sort gave, so ties stay stable
+        entry.seq = task.getMomentum() > entry.momentum ? ++highSeq : --lowSeq;
+        entry.momentum = task.getMomentum();
+        order.insert(entry);
+
+        if (order.rank(entry) == oldRank) return false;
+        placeInList(entry);
+        return true;
+    }
 
-        // Swap pointers
-        node2.prev = prevNode;
-        node2.next = node1;
-        node1.prev = node2;
-        node1.next = nextNode;
+    // Put the DLL node right after the node of its predecessor in the tree
+    private void placeInList(OrderEntry entry) {
+        int rank = order.rank(entry);
+        Node<Task> anchor = rank == 0 ? null : order.get(rank - 1).node;
+        ordered.moveAfter(entry.node, anchor);
+    }
+
+    /**
+     * Bring the list back in momentum order after bulk changes (e.g. decay).
+     * Only tasks whose momentum changed are moved, each in O(log n).
+     */
+    public void reorderByMomentum(DoublyLinkedList<Task> tasks) {
+        if (tasks != ordered) {
+            track(tasks);
+            return;
+        }
 
-        // Fix surrounding nodes
-        if (prevNode != null) {
-            prevNode.next = node2;
+        int moved = 0;
+        for (Node<Task> node = tasks.getHead(); node != null; ) {
+            Node<Task> next = node.next; // capture first: node may move
+            if (repositionNow(node.data)) moved++;
+            node = next;
         }
-        if (nextNode != null) {
-            nextNode.prev = node1;
+
+        if (moved > 0) {
+            System.out.println("🔄 Reordered " + moved + " tasks by momentum");
         }
     }
 
-    // Helper methods to set head/tail (using reflection workaround)
-    private void setHead(DoublyLinkedList<Task> list, Node<Task> newHead) {
-        try {
-            var field = DoublyLinkedList.class.getDeclaredField("head");
-            field.setAccessible(true);
-            field.set(list, newHead);
-        } catch (Exception e) {
-            // Fallback: handled by normal pointer updates
+    /**
+     * The k hottest tracked tasks, hottest first.
+     */
+    public List<Task> topK(int k) {
+        List<Task> top = new ArrayList<>();
+        for (OrderEntry entry : order.first(k)) {
+            top.add(entry.node.data);
         }
+        return top;
     }
 
-    private void setTail(DoublyLinkedList<Task> list, Node<Task> newTail) {
-        try {
-            var field = DoublyLinkedList.class.getDeclaredField("tail");
-            field.setAccessible(true);
-            field.set(list, newTail);
-        } catch (Exception e) {
-            // Fallback: handled by normal pointer updates
+    /**
+     * 0-based position of a tracked task in momentum order, or -1 if untracked.
+     */
+    public int rankOf(Task task) {
+        OrderEntry entry = entries.get(task.getId());
+        return entry == null ? -1 : order.rank(entry);
+    }
+
+    // Tree key: momentum descending, then tie-break sequence ascending
+    private static class OrderEntry {
+        final Node<Task> node;
+        int momentum;
+        long seq;
+
+        OrderEntry(Node<Task> node, int momentum, long seq) {
+            this.node = node;
+            this.momentum = momentum;
+            this.seq = seq;
         }
     }
 
@@ -172,26 +333,10 @@ public class MomentumTracker {
         StringBuilder sb = new StringBuilder();
         sb.append("\n📊 === MOMENTUM INSIGHTS ===\n");
 
-        Task hottest = null;
-        Task coldest = null;
-        int frozenCount = 0;
-
-        Node<Task> current = tasks.getHead();
-        while (current != null) {
-            Task task = current.data;
-
-            if (hottest == null || task.getMomentum() > hottest.getMomentum()) {
-                hottest = task;
-            }
-            if (coldest == null || task.getMomentum() < coldest.getMomentum()) {
-                coldest = task;
-            }
-            if (task.getMomentum() < 0) {
-                frozenCount++;
-            }
-
-            current = current.next;
-        }
+        Insights insights = tasks.stream(parallelThreshold).collect(Insights::new, Insights::add, Insights::merge);
+        Task hottest = insights.hottest;
+        Task coldest = insights.coldest;
+        int frozenCount = insights.frozenCount;
 
         if (hottest != null) {
             sb.append("🔥 Hottest: ").append(hottest.getName()).append(" (").append(hottest.getMomentum()).append(")\n");
@@ -209,6 +354,35 @@ public class MomentumTracker {
         return result;
     }
 
+    // One pass of showInsights; merge() keeps the earlier task on ties, like a sequential walk
+    private static final class Insights {
+        Task hottest;
+        Task coldest;
+        int frozenCount;
+
+        void add(Task task) {
+            if (hottest == null || task.getMomentum() > hottest.getMomentum()) {
+                hottest = task;
+            }
+            if (coldest == null || task.getMomentum() < coldest.getMomentum()) {
+                coldest = task;
+            }
+            if (task.getMomentum() < 0) {
+                frozenCount++;
+            }
+        }
+
+        void merge(Insights later) {
+            if (later.hottest != null && (hottest == null || later.hottest.getMomentum() > hottest.getMomentum())) {
+                hottest = later.hottest;
+            }
+            if (later.coldest != null && (coldest == null || later.coldest.getMomentum() < coldest.getMomentum())) {
+                coldest = later.coldest;
+            }
+            frozenCount += later.frozenCount;
+        }
+    }
+
     public enum InteractionType {
         WORK, SUBTASK_COMPLETE, COMMENT
     }
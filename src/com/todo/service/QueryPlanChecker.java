@@ -0,0 +1,99 @@
+package com.todo.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guards the indexes added by {@link SchemaMigrations}: runs EXPLAIN QUERY PLAN over the
+ * hot queries and reports any that SQLite would answer with a full table or index scan.
+ *
+ * QueryPlanCheckerTest runs it against a freshly migrated database as part of {@code mvn test}.
+ * {@code java com.todo.service.QueryPlanChecker <db file>} checks an existing database the
+ * same way and fails with the offending plans if a query regressed.
+ */
+public class QueryPlanChecker {
+
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("task by id", DatabaseManager.SELECT_TASK_SQL);
+        HOT_QUERIES.put("subtasks of a task", DatabaseManager.SELECT_CHILDREN_SQL);
+        HOT_QUERIES.put("first top-level page", DatabaseManager.SELECT_FIRST_PAGE_SQL);
+        HOT_QUERIES.put("next top-level page", DatabaseManager.SELECT_NEXT_PAGE_SQL);
+        HOT_QUERIES.put("ids by prefix", DatabaseManager.SELECT_IDS_BY_PREFIX_SQL);
+        HOT_QUERIES.put("top-level ids by prefix", DatabaseManager.SELECT_TOP_LEVEL_IDS_BY_PREFIX_SQL);
+        HOT_QUERIES.put("delete task", DatabaseManager.DELETE_TASK_SQL);
+        // What SQLite runs per deleted row to cascade the foreign key
+        HOT_QUERIES.put("cascade lookup", "SELECT 1 FROM tasks WHERE parent_id = ?");
+        HOT_QUERIES.put("tasks by status", "SELECT id FROM tasks WHERE status = ? ORDER BY momentum DESC");
+        HOT_QUERIES.put("tasks due before", "SELECT id FROM tasks WHERE deadline < ?");
+        HOT_QUERIES.put("tasks in category", "SELECT id FROM tasks WHERE category_id = ?");
+        HOT_QUERIES.put("full-text search window", DatabaseManager.SEARCH_WINDOW_START_SQL);
+        HOT_QUERIES.put("full-text search", DatabaseManager.SEARCH_TASKS_SQL);
+    }
+
+    /**
+     * Plan lines of every hot query that scans instead of searching; empty when all is well.
+     */
+    public static List<String> findScans(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+            for (String detail : explain(conn, query.getValue())) {
+                if (detail.startsWith("SCAN ") && !isFullTextSearch(detail)) {
+                    problems.add(query.getKey() + ": " + detail + "  <- " + query.getValue());
+                }
+            }
+        }
+        return problems;
+    }
+
+    // FTS5 reports a MATCH lookup as a virtual table "scan" whose index string holds an M
+    private static boolean isFullTextSearch(String detail) {
+        int index = detail.indexOf("VIRTUAL TABLE INDEX ");
+        return index >= 0 && detail.indexOf(":M", index) >= 0;
+    }
+
+    /**
+     * Throws IllegalStateException listing every hot query that falls back to a scan.
+     */
+    public static void verify(Connection conn) throws SQLException {
+        List<String> problems = findScans(conn);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Hot queries fall back to scans:\n  " + String.join("\n  ", problems));
+        }
+    }
+
+    // The "detail" column of EXPLAIN QUERY PLAN, one entry per plan step.
+    // Parameters stay unbound: they read as NULL, which does not change the plan shape.
+    static List<String> explain(Connection conn, String sql) throws SQLException {
+        List<String> details = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                details.add(rs.getString("detail"));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * Checks a fresh in-memory database migrated to the latest schema, so the result depends
+     * only on the queries and indexes, not on whatever statistics the local data produced.
+     * Pass a database file to check that one instead. Fails through {@link #verify}.
+     */
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? "jdbc:sqlite:" + args[0] : "jdbc:sqlite::memory:";
+        try (Connection conn = DriverManager.getConnection(url)) {
+            SchemaMigrations.migrate(conn);
+            verify(conn);
+        }
+        System.out.println("✅ All " + HOT_QUERIES.size() + " hot queries use an index.");
+    }
+}
@@ -0,0 +1,200 @@
+package com.todo.service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Versioned schema changes for the tasks database.
+ * The schema version lives in SQLite's {@code PRAGMA user_version}; each step runs once,
+ * in order, inside its own transaction together with the version bump, so a database is
+ * never left half-migrated. Add new steps to the end of {@link #STEPS}, never edit old ones.
+ */
+final class SchemaMigrations {
+
+    private static final String[][] STEPS = {
+            // 1: the original table (IF NOT EXISTS: databases from before versioning already have it)
+            {
+                    "CREATE TABLE IF NOT EXISTS tasks (" +
+                    "id TEXT PRIMARY KEY, " +
+                    "name TEXT NOT NULL, " +
+                    "category TEXT, " +
+                    "deadline TEXT, " +
+                    "priority TEXT, " +
+                    "status TEXT, " +
+                    "momentum INTEGER DEFAULT 0, " +
+                    "parent_id TEXT, " +
+                    "FOREIGN KEY (parent_id) REFERENCES tasks(id) ON DELETE CASCADE" +
+                    ")"
+            },
+            // 2: indexes for the hot queries.
+            // parent_id leads so ON DELETE CASCADE and subtask loads are index searches; momentum
+            // and id follow so the top-level page query reads rows already in page order.
+            {
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_parent ON tasks(parent_id, momentum DESC, id)",
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_status_momentum ON tasks(status, momentum)",
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_deadline ON tasks(deadline)",
+                    "CREATE INDEX IF NOT EXISTS idx_tasks_category ON tasks(category)",
+                    "ANALYZE"
+            },
+            // 3: dictionary-encoded categories. Each name is stored once in categories and
+            // tasks refer to it by id; the text column (and its index) goes away.
+            {
+                    "CREATE TABLE categories (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "name TEXT NOT NULL UNIQUE" +
+                    ")",
+                    "INSERT INTO categories (name) SELECT DISTINCT category FROM tasks WHERE category IS NOT NULL",
+                    "ALTER TABLE tasks ADD COLUMN category_id INTEGER REFERENCES categories(id)",
+                    "UPDATE tasks SET category_id = (SELECT id FROM categories WHERE name = tasks.category) " +
+                    "WHERE category IS NOT NULL",
+                    "DROP INDEX IF EXISTS idx_tasks_category",
+                    "ALTER TABLE tasks DROP COLUMN category",
+                    "CREATE INDEX idx_tasks_category ON tasks(category_id)",
+                    "ANALYZE"
+            },
+            // 4: full-text search over task names and categories. tasks_fts only holds the index;
+            // its content is read through task_search_source (tasks joined to categories), keyed by
+            // the tasks rowid. The triggers keep it in step with every write, cascaded deletes too.
+            // Categories are never changed, so a deleted row's old category can still be looked up.
+            // Search words are prefixes (see TaskSearch); prefix indexes up to 8 characters let
+            // FTS5 read those like whole words instead of merging every term that starts with
+            // them, for about twice the index size.
+            {
+                    "CREATE VIEW task_search_source AS " +
+                    "SELECT t.rowid AS task_rowid, t.name AS name, c.name AS category " +
+                    "FROM tasks t LEFT JOIN categories c ON c.id = t.category_id",
+                    "CREATE VIRTUAL TABLE tasks_fts USING fts5(" +
+                    "name, category, " +
+                    "content='task_search_source', content_rowid='task_rowid', " +
+                    "tokenize='unicode61 remove_diacritics 2', prefix='2 3 4 5 6 7 8'" +
+                    ")",
+                    // Name matches count four times as much as category matches
+                    "INSERT INTO tasks_fts (tasks_fts, rank) VALUES ('rank', 'bm25(4.0, 1.0)')",
+                    "CREATE TRIGGER tasks_fts_insert AFTER INSERT ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (rowid, name, category) " +
+                    "VALUES (new.rowid, new.name, (SELECT name FROM categories WHERE id = new.category_id)); " +
+                    "END",
+                    "CREATE TRIGGER tasks_fts_delete AFTER DELETE ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (tasks_fts, rowid, name, category) " +
+                    "VALUES ('delete', old.rowid, old.name, (SELECT name FROM categories WHERE id = old.category_id)); " +
+                    "END",
+                    "CREATE TRIGGER tasks_fts_update AFTER UPDATE OF name, category_id ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (tasks_fts, rowid, name, category) " +
+                    "VALUES ('delete', old.rowid, old.name, (SELECT name FROM categories WHERE id = old.category_id)); " +
+                    "INSERT INTO tasks_fts (rowid, name, category) " +
+                    "VALUES (new.rowid, new.name, (SELECT name FROM categories WHERE id = new.category_id)); " +
+                    "END",
+                    "INSERT INTO tasks_fts (tasks_fts) VALUES ('rebuild')",
+                    "INSERT INTO tasks_fts (tasks_fts) VALUES ('optimize')"
+            },
+            // 5: a stable key for the search index. Version 4 keyed tasks_fts by the implicit
+            // rowid, which VACUUM (and VACUUM INTO, behind snapshotTo) may renumber because
+            // tasks had a TEXT primary key; a renumbered row no longer matches its index entry.
+            // tasks is rebuilt with seq INTEGER PRIMARY KEY, an alias of rowid that VACUUM keeps,
+            // and id becomes UNIQUE. Every row keeps its old rowid as seq, so search order and
+            // the rank window stay as they were. The index is rebuilt from scratch on seq, which
+            // also repairs one that a snapshot already left out of step.
+            // The old table is renamed first so dropping it cannot cascade into the new one, and
+            // foreign keys are checked at commit, once every parent has been copied.
+            {
+                    "PRAGMA defer_foreign_keys = ON",
+                    "DROP TRIGGER tasks_fts_insert",
+                    "DROP TRIGGER tasks_fts_delete",
+                    "DROP TRIGGER tasks_fts_update",
+                    "DROP TABLE tasks_fts",
+                    "DROP VIEW task_search_source",
+                    "ALTER TABLE tasks RENAME TO tasks_v4",
+                    "CREATE TABLE tasks (" +
+                    "seq INTEGER PRIMARY KEY, " +
+                    "id TEXT NOT NULL UNIQUE, " +
+                    "name TEXT NOT NULL, " +
+                    "deadline TEXT, " +
+                    "priority TEXT, " +
+                    "status TEXT, " +
+                    "momentum INTEGER DEFAULT 0, " +
+                    "parent_id TEXT, " +
+                    "category_id INTEGER REFERENCES categories(id), " +
+                    "FOREIGN KEY (parent_id) REFERENCES tasks(id) ON DELETE CASCADE" +
+                    ")",
+                    "INSERT INTO tasks (seq, id, name, deadline, priority, status, momentum, parent_id, category_id) " +
+                    "SELECT rowid, id, name, deadline, priority, status, momentum, parent_id, category_id FROM tasks_v4",
+                    "DROP TABLE tasks_v4",
+                    "CREATE INDEX idx_tasks_parent ON tasks(parent_id, momentum DESC, id)",
+                    "CREATE INDEX idx_tasks_status_momentum ON tasks(status, momentum)",
+                    "CREATE INDEX idx_tasks_deadline ON tasks(deadline)",
+                    "CREATE INDEX idx_tasks_category ON tasks(category_id)",
+                    "CREATE VIEW task_search_source AS " +
+                    "SELECT t.seq AS task_seq, t.name AS name, c.name AS category " +
+                    "FROM tasks t LEFT JOIN categories c ON c.id = t.category_id",
+                    "CREATE VIRTUAL TABLE tasks_fts USING fts5(" +
+                    "name, category, " +
+                    "content='task_search_source', content_rowid='task_seq', " +
+                    "tokenize='unicode61 remove_diacritics 2', prefix='2 3 4 5 6 7 8'" +
+                    ")",
+                    "INSERT INTO tasks_fts (tasks_fts, rank) VALUES ('rank', 'bm25(4.0, 1.0)')",
+                    "CREATE TRIGGER tasks_fts_insert AFTER INSERT ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (rowid, name, category) " +
+                    "VALUES (new.seq, new.name, (SELECT name FROM categories WHERE id = new.category_id)); " +
+                    "END",
+                    "CREATE TRIGGER tasks_fts_delete AFTER DELETE ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (tasks_fts, rowid, name, category) " +
+                    "VALUES ('delete', old.seq, old.name, (SELECT name FROM categories WHERE id = old.category_id)); " +
+                    "END",
+                    "CREATE TRIGGER tasks_fts_update AFTER UPDATE OF name, category_id ON tasks BEGIN " +
+                    "INSERT INTO tasks_fts (tasks_fts, rowid, name, category) " +
+                    "VALUES ('delete', old.seq, old.name, (SELECT name FROM categories WHERE id = old.category_id)); " +
+                    "INSERT INTO tasks_fts (rowid, name, category) " +
+                    "VALUES (new.seq, new.name, (SELECT name FROM categories WHERE id = new.category_id)); " +
+                    "END",
+                    "INSERT INTO tasks_fts (tasks_fts) VALUES ('rebuild')",
+                    "INSERT INTO tasks_fts (tasks_fts) VALUES ('optimize')",
+                    "ANALYZE"
+            }
+    };
+
+    private SchemaMigrations() {
+    }
+
+    static int latestVersion() {
+        return STEPS.length;
+    }
+
+    /**
+     * Bring the database up to the latest version. Returns the version it started from.
+     */
+    static int migrate(Connection conn) throws SQLException {
+        int from = currentVersion(conn);
+        if (from > STEPS.length) {
+            throw new SQLException("Database schema version " + from + " is newer than this build (" + STEPS.length + ")");
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        try (Statement stmt = conn.createStatement()) {
+            for (int version = from + 1; version <= STEPS.length; version++) {
+                conn.setAutoCommit(false);
+                try {
+                    for (String sql : STEPS[version - 1]) {
+                        stmt.execute(sql);
+                    }
+                    // PRAGMA does not take bind parameters; version is our own int
+                    stmt.execute("PRAGMA user_version = " + version);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Schema migration to version " + version + " failed", e);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return from;
+    }
+
+    static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.todo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Records every successful TodoService operation to a log, so a real session can be replayed
+ * later (see the bench tools). Enable it with {@code -Dtodo.recordSession=session.log}.
+ *
+ * One line per operation: {@code <nanos since start>\t<OPERATION>\t<arg>...}, tabs and
+ * newlines in arguments escaped. Ids are always full task ids, and operations that create a
+ * task record the new id, so a replay can map them onto the ids it creates itself.
+ * Before the first operation the database is copied next to the log ({@code <log>.db}) with
+ * VACUUM INTO, giving the replay the exact starting state.
+ */
+public class SessionRecorder implements AutoCloseable {
+
+    public enum Operation {
+        ADD_TASK,        // createdId, name, category, deadline, priority
+        ADD_SUBTASK,     // createdId, parentId, name, deadline, priority
+        DELETE,          // id
+        UNDO_DELETE,     // restoredId
+        UPDATE_STATUS,   // id, status
+        WORK,            // id
+        UPDATE_MOMENTUM,
+        AUTO_PROMOTE
+    }
+
+    private final BufferedWriter out;
+    private final long startNanos = System.nanoTime();
+
+    public SessionRecorder(Path log) throws IOException {
+        Path snapshot = snapshotPathFor(log);
+        Files.deleteIfExists(snapshot);
+        DatabaseManager.snapshotTo(snapshot);
+        this.out = Files.newBufferedWriter(log, StandardCharsets.UTF_8);
+    }
+
+    public static Path snapshotPathFor(Path log) {
+        return Paths.get(log.toString() + ".db");
+    }
+
+    public synchronized void record(Operation operation, Object... args) {
+        try {
+            out.write(Long.toString(System.nanoTime() - startNanos));
+            out.write('\t');
+            out.write(operation.name());
+            for (Object arg : args) {
+                out.write('\t');
+                out.write(escape(arg == null ? null : arg.toString()));
+            }
+            out.newLine();
+            // Flushed per line: a session that ends in a crash is exactly the one worth replaying
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    // null is written as a lone backslash-0 so it survives the round trip
+    static String escape(String value) {
+        if (value == null) return "\\0";
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    public static String unescape(String value) {
+        if (value.equals("\\0")) return null;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+        }
+        return sb.toString();
+    }
+}
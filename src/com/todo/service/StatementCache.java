@@ -0,0 +1,85 @@
+package com.todo.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prepared statements for one long-lived connection, keyed by SQL text.
+ * SQLite parses and plans a statement on every prepare, so the hot upsert/delete/select
+ * statements are prepared once and reused. Least recently used statements are closed
+ * once the cache grows past its bound.
+ *
+ * Not thread-safe: a cache belongs to a pooled connection and is only touched by whoever
+ * currently holds that connection's lease.
+ */
+public class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public StatementCache(Connection connection, int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        this.connection = connection;
+        this.maxSize = maxSize;
+        // accessOrder = true turns the map into an LRU list
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+                evictions++;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Return the cached statement for this SQL, preparing it on first use.
+     * Callers must NOT close the returned statement; parameters from the previous use
+     * are cleared before it is handed out.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt != null && !stmt.isClosed()) {
+            hits++;
+            stmt.clearParameters();
+            return stmt;
+        }
+        misses++;
+        stmt = connection.prepareStatement(sql);
+        statements.put(sql, stmt);
+        return stmt;
+    }
+
+    public int size() { return statements.size(); }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+
+    /**
+     * Close every cached statement, e.g. before the owning connection is closed or replaced.
+     */
+    public void closeAll() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
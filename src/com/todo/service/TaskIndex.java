@@ -0,0 +1,103 @@
+package com.todo.service;
+
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Id lookups for TodoService, kept in step with the task lists.
+ * - full id -> the DLL node holding the task (top-level list or a parent's subtask list): O(1)
+ * - sorted ids for prefix lookups: O(log n) to find the first match
+ * - child id -> parent task: O(1)
+ * The maps are concurrent so ConcurrentTodoService can add subtasks under different roots
+ * in parallel; a lookup sees each entry either fully added or not at all.
+ */
+public class TaskIndex {
+
+    private final Map<String, Node<Task>> nodesById = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Task> sortedIds = new ConcurrentSkipListMap<>();
+    private final Map<String, Task> parentsById = new ConcurrentHashMap<>();
+
+    /**
+     * Index a task (given by its list node) together with all of its subtasks.
+     */
+    public void addTree(Node<Task> node, Task parent) {
+        Task task = node.data;
+        nodesById.put(task.getId(), node);
+        sortedIds.put(task.getId(), task);
+        if (parent != null) {
+            parentsById.put(task.getId(), parent);
+        }
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            addTree(sub, task);
+        }
+    }
+
+    /**
+     * Drop a task and all of its subtasks from the index.
+     */
+    public void removeTree(Task task) {
+        nodesById.remove(task.getId());
+        sortedIds.remove(task.getId());
+        parentsById.remove(task.getId());
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            removeTree(sub.data);
+        }
+    }
+
+    public void clear() {
+        nodesById.clear();
+        sortedIds.clear();
+        parentsById.clear();
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    public Task get(String id) {
+        Node<Task> node = nodesById.get(id);
+        return node != null ? node.data : null;
+    }
+
+    /**
+     * The DLL node currently holding this task, or null if it is not indexed.
+     */
+    public Node<Task> nodeOf(String id) {
+        return nodesById.get(id);
+    }
+
+    /**
+     * Parent of a subtask, or null for top-level (or unknown) tasks.
+     */
+    public Task parentOf(Task task) {
+        return parentsById.get(task.getId());
+    }
+
+    public boolean isTopLevel(Task task) {
+        return nodesById.containsKey(task.getId()) && !parentsById.containsKey(task.getId());
+    }
+
+    /**
+     * Up to {@code limit} tasks whose id starts with the prefix, in id order.
+     * Asking for two is enough to tell "unique" from "ambiguous".
+     */
+    public List<Task> findByPrefix(String prefix, int limit, boolean topLevelOnly) {
+        List<Task> matches = new ArrayList<>(Math.min(limit, 4));
+        for (Map.Entry<String, Task> entry : sortedIds.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) break; // sorted, so no later id can match
+            if (topLevelOnly && parentsById.containsKey(entry.getKey())) continue;
+            matches.add(entry.getValue());
+            if (matches.size() >= limit) break;
+        }
+        return matches;
+    }
+}
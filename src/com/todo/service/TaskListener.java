@@ -0,0 +1,37 @@
+package com.todo.service;
+
+import com.todo.model.Task;
+
+/**
+ * Change notifications from TodoService, so views can update just what changed instead of
+ * re-reading every task. {@code parent} is null for top-level tasks.
+ *
+ * Listeners run on the thread that made the change, right after it, while the service's
+ * state is consistent (under ConcurrentTodoService's locks, too): they may read the task
+ * lists but must not call back into the service.
+ */
+public interface TaskListener {
+
+    /**
+     * A task (with its subtasks) joined the list: added, undeleted or loaded. A new subtask is
+     * the last one of its parent; a top-level task is already at its place in momentum order.
+     */
+    void taskAdded(Task task, Task parent);
+
+    /**
+     * A task and its subtasks left the list: deleted, or in LAZY mode unloaded again (they
+     * are still in the database and come back with taskAdded when they are next loaded).
+     */
+    void taskRemoved(Task task, Task parent);
+
+    /**
+     * Fields of the task changed. A top-level task may also have moved to a new place in
+     * momentum order.
+     */
+    void taskChanged(Task task, Task parent);
+
+    /**
+     * A bulk operation may have changed any task and reordered the top-level list.
+     */
+    void tasksChanged();
+}
@@ -0,0 +1,212 @@
+package com.todo.service;
+
+import com.todo.model.CategoryDictionary;
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What to look for among the loaded tasks, and in which order: filters on status, priority,
+ * category, deadline and momentum ranges and words of the name, plus a sort field.
+ * Immutable; every {@code with...} method returns a changed copy, so a query can be shared
+ * with the thread that evaluates it.
+ *
+ * The name search is a word-prefix search: every word of the text has to start some word of
+ * the name, ignoring case, so "rep q3" finds "Quarterly report (Q3)". It compares in place,
+ * without lowercasing or splitting the name, so testing a task allocates nothing.
+ *
+ * Results are ordered by the sort field, then by id, so the order is total and
+ * {@link LiveQuery} can find a task's row by binary search.
+ */
+public final class TaskQuery {
+
+    public enum SortField {
+        // The key a task sorts by; null keys go last
+        NAME, CATEGORY, DEADLINE, PRIORITY, STATUS, MOMENTUM;
+
+        Comparable<?> keyOf(Task task) {
+            switch (this) {
+                case NAME: return task.getName();
+                case CATEGORY: return task.getCategory();
+                case DEADLINE: return task.getDeadline();
+                case PRIORITY: return task.getPriority();
+                case STATUS: return task.getStatus();
+                default: return task.getMomentum();
+            }
+        }
+    }
+
+    public static final TaskQuery ALL = new TaskQuery();
+
+    private Set<Status> statuses;        // null: any
+    private Set<Priority> priorities;    // null: any
+    private boolean filterCategory;
+    private String category;             // with filterCategory; null means uncategorized
+    private LocalDate deadlineFrom;      // inclusive; null: open
+    private LocalDate deadlineTo;        // inclusive; null: open
+    private int minMomentum = Integer.MIN_VALUE;
+    private int maxMomentum = Integer.MAX_VALUE;
+    private String[] words = new String[0];
+    private SortField sortField = SortField.MOMENTUM;
+    private boolean descending = true;
+
+    private TaskQuery() {
+    }
+
+    private TaskQuery copy() {
+        TaskQuery q = new TaskQuery();
+        q.statuses = statuses;
+        q.priorities = priorities;
+        q.filterCategory = filterCategory;
+        q.category = category;
+        q.deadlineFrom = deadlineFrom;
+        q.deadlineTo = deadlineTo;
+        q.minMomentum = minMomentum;
+        q.maxMomentum = maxMomentum;
+        q.words = words;
+        q.sortField = sortField;
+        q.descending = descending;
+        return q;
+    }
+
+    /**
+     * Only tasks in one of these statuses; none given means any status.
+     */
+    public TaskQuery withStatus(Status... statuses) {
+        TaskQuery q = copy();
+        q.statuses = statuses.length == 0 ? null : EnumSet.copyOf(Arrays.asList(statuses));
+        return q;
+    }
+
+    /**
+     * Only tasks with one of these priorities; none given means any priority.
+     */
+    public TaskQuery withPriority(Priority... priorities) {
+        TaskQuery q = copy();
+        q.priorities = priorities.length == 0 ? null : EnumSet.copyOf(Arrays.asList(priorities));
+        return q;
+    }
+
+    /**
+     * Only tasks in this category (null: tasks without one).
+     */
+    public TaskQuery withCategory(String category) {
+        TaskQuery q = copy();
+        q.filterCategory = true;
+        q.category = category;
+        return q;
+    }
+
+    /**
+     * Only tasks due between the two dates, both included; null leaves that end open.
+     * Tasks without a deadline never match a deadline range.
+     */
+    public TaskQuery withDeadlineBetween(LocalDate from, LocalDate to) {
+        TaskQuery q = copy();
+        q.deadlineFrom = from;
+        q.deadlineTo = to;
+        return q;
+    }
+
+    /**
+     * Only tasks whose momentum is between the two values, both included.
+     */
+    public TaskQuery withMomentumBetween(int min, int max) {
+        TaskQuery q = copy();
+        q.minMomentum = min;
+        q.maxMomentum = max;
+        return q;
+    }
+
+    /**
+     * Only tasks whose name has a word starting with each word of {@code text}
+     * (see the class comment). Null or blank matches every name.
+     */
+    public TaskQuery withText(String text) {
+        TaskQuery q = copy();
+        String trimmed = text == null ? "" : text.trim();
+        q.words = trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+        return q;
+    }
+
+    public TaskQuery sortedBy(SortField field, boolean descending) {
+        TaskQuery q = copy();
+        q.sortField = field;
+        q.descending = descending;
+        return q;
+    }
+
+    public SortField getSortField() { return sortField; }
+    public boolean isDescending() { return descending; }
+
+    public boolean matches(Task task) {
+        if (statuses != null && !statuses.contains(task.getStatus())) return false;
+        if (priorities != null && !priorities.contains(task.getPriority())) return false;
+        // Dictionary codes: one lookup per call, no string compare per task
+        if (filterCategory && task.getCategoryCode() != categoryCode()) return false;
+        if (deadlineFrom != null || deadlineTo != null) {
+            LocalDate deadline = task.getDeadline();
+            if (deadline == null) return false;
+            if (deadlineFrom != null && deadline.isBefore(deadlineFrom)) return false;
+            if (deadlineTo != null && deadline.isAfter(deadlineTo)) return false;
+        }
+        int momentum = task.getMomentum();
+        if (momentum < minMomentum || momentum > maxMomentum) return false;
+        for (String word : words) {
+            if (!hasWordStartingWith(task.getName(), word)) return false;
+        }
+        return true;
+    }
+
+    // NONE for "no category"; a name the dictionary has never seen matches no task at all
+    private int categoryCode() {
+        if (category == null) return CategoryDictionary.NONE;
+        int code = CategoryDictionary.lookup(category);
+        return code == CategoryDictionary.NONE ? Integer.MIN_VALUE : code;
+    }
+
+    private static boolean hasWordStartingWith(String name, String prefix) {
+        if (name == null) return false;
+        int last = name.length() - prefix.length();
+        for (int i = 0; i <= last; i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1));
+            if (wordStart && name.regionMatches(true, i, prefix, 0, prefix.length())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The sort key of a task right now; LiveQuery keeps it to find the task's row after the
+     * task has changed.
+     */
+    Comparable<?> keyOf(Task task) {
+        return sortField.keyOf(task);
+    }
+
+    /**
+     * Orders two tasks given their keys: by key (nulls last, whichever direction), then by id.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int compare(Comparable key1, Task task1, Comparable key2, Task task2) {
+        if (key1 != key2) {
+            if (key1 == null) return 1;
+            if (key2 == null) return -1;
+            int c = key1.compareTo(key2);
+            if (c != 0) return descending ? -c : c;
+        }
+        return task1.getId().compareTo(task2.getId());
+    }
+
+    /**
+     * Result order for tasks as they are now.
+     */
+    public Comparator<Task> order() {
+        return (a, b) -> compare(keyOf(a), a, keyOf(b), b);
+    }
+}
@@ -0,0 +1,66 @@
+package com.todo.service;
+
+/**
+ * Turns what the user typed into an FTS5 MATCH expression for tasks_fts (see SchemaMigrations
+ * step 4), so no input can be a syntax error or reach FTS5's operators and column filters.
+ *
+ * - A bare word matches as a prefix: {@code rep} becomes {@code "rep"*}.
+ * - A "quoted phrase" matches those words in that order: {@code "weekly report"}; with a
+ *   star after the closing quote its last word is a prefix: {@code "weekly rep"*}.
+ * - All terms have to match (FTS5's implicit AND). Terms without a letter or digit are
+ *   dropped, since the tokenizer would leave nothing of them.
+ */
+final class TaskSearch {
+
+    private TaskSearch() {
+    }
+
+    /**
+     * The MATCH expression, or null when the text has nothing to search for.
+     */
+    static String matchExpression(String text) {
+        if (text == null) return null;
+        StringBuilder match = new StringBuilder();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            boolean phrase = c == '"';
+            int start;
+            int end;
+            boolean prefix;
+            if (phrase) {
+                start = i + 1;
+                end = text.indexOf('"', start);
+                if (end < 0) end = n; // unclosed: the phrase runs to the end
+                i = Math.min(end + 1, n);
+                prefix = i < n && text.charAt(i) == '*';
+                if (prefix) i++;
+            } else {
+                start = i;
+                end = i;
+                while (end < n && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '"') end++;
+                i = end;
+                prefix = true;
+            }
+            String term = text.substring(start, end);
+            if (!hasLetterOrDigit(term)) continue;
+            if (match.length() > 0) match.append(' ');
+            // Inside an FTS5 string a double quote is written twice
+            match.append('"').append(term.replace("\"", "\"\"")).append('"');
+            if (prefix) match.append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    private static boolean hasLetterOrDigit(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (Character.isLetterOrDigit(term.charAt(i))) return true;
+        }
+        return false;
+    }
+}
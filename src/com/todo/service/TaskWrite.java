@@ -0,0 +1,197 @@
+package com.todo.service;
+
+import com.todo.model.CategoryDictionary;
+import com.todo.model.Task;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * One pending row change for the tasks table. Column values are copied out of the Task
+ * when the write is created, so it can be executed later on another thread without
+ * reading the live (and possibly still changing) Task object.
+ *
+ * UPDATE writes only touch the columns in their dirty mask; the full row is still captured
+ * so that two writes for the same task can always be merged into one.
+ *
+ * The write also keeps the Task it was taken from, never read by the writer thread: if the
+ * write does not commit, {@link #markUnsaved} gives the task its dirty bits back.
+ *
+ * The category is kept as its CategoryDictionary code and bound as the database's category id
+ * (see CategoryTable), which must exist before the write runs.
+ */
+class TaskWrite {
+
+    enum Kind { UPSERT, UPDATE, DELETE }
+
+    private static final Task.Field[] FIELDS = Task.Field.values();
+    private static final String[] COLUMNS = {
+            "name", "category_id", "deadline", "priority", "status", "momentum", "parent_id"
+    };
+    // UPDATE statements per dirty mask, built on first use (there are only 2^7 of them)
+    private static final String[] UPDATE_SQL = new String[1 << FIELDS.length];
+
+    private final Kind kind;
+    private final Task task;   // null for deletes
+    private final int mask;
+    private final String taskId;
+    private final String name;
+    private final int categoryCode;
+    private final String deadline;
+    private final String priority;
+    private final String status;
+    private final int momentum;
+    private final String parentId;
+
+    private TaskWrite(Kind kind, Task task, int mask, String taskId, String name, int categoryCode, String deadline,
+                      String priority, String status, int momentum, String parentId) {
+        this.kind = kind;
+        this.task = task;
+        this.mask = mask;
+        this.taskId = taskId;
+        this.name = name;
+        this.categoryCode = categoryCode;
+        this.deadline = deadline;
+        this.priority = priority;
+        this.status = status;
+        this.momentum = momentum;
+        this.parentId = parentId;
+    }
+
+    static TaskWrite upsert(Task task, String parentId) {
+        return snapshot(Kind.UPSERT, 0, task, parentId);
+    }
+
+    /**
+     * The cheapest write that brings the row up to date: a full upsert for a task that was
+     * never persisted, an UPDATE of just the dirty columns otherwise, or null if the task is clean.
+     */
+    static TaskWrite changes(Task task) {
+        if (!task.isPersisted()) return upsert(task, task.getParentId());
+        if (task.getDirtyMask() == 0) return null;
+        return snapshot(Kind.UPDATE, task.getDirtyMask(), task, task.getParentId());
+    }
+
+    static TaskWrite delete(String taskId) {
+        return new TaskWrite(Kind.DELETE, null, 0, taskId, null, CategoryDictionary.NONE, null, null, null, 0, null);
+    }
+
+    private static TaskWrite snapshot(Kind kind, int mask, Task task, String parentId) {
+        return new TaskWrite(kind, task, mask, task.getId(), task.getName(), task.getCategoryCode(),
+                task.getDeadline() != null ? task.getDeadline().toString() : null,
+                task.getPriority().name(), task.getStatus().name(), task.getMomentum(), parentId);
+    }
+
+    /**
+     * Combine this (older) write with a newer one for the same task.
+     * Every snapshot holds the full row, so the newer values always win; only the kind
+     * and the set of columns to write need merging.
+     */
+    TaskWrite mergeWith(TaskWrite newer) {
+        if (newer.kind != Kind.UPDATE) return newer;
+        if (kind == Kind.UPDATE) {
+            return new TaskWrite(Kind.UPDATE, newer.task, mask | newer.mask, newer.taskId, newer.name, newer.categoryCode,
+                    newer.deadline, newer.priority, newer.status, newer.momentum, newer.parentId);
+        }
+        // An update on top of a queued upsert (or a re-created row) has to stay an upsert
+        return new TaskWrite(Kind.UPSERT, newer.task, 0, newer.taskId, newer.name, newer.categoryCode,
+                newer.deadline, newer.priority, newer.status, newer.momentum, newer.parentId);
+    }
+
+    /**
+     * After this write did not commit: mark what it would have stored as unsaved again on its
+     * task, so the task's next save writes it. Call on the thread that owns the task.
+     */
+    void markUnsaved() {
+        if (task == null) return;
+        if (kind == Kind.UPSERT) {
+            task.markUnsaved(0, false);
+        } else {
+            task.markUnsaved(mask, true);
+        }
+    }
+
+    Kind getKind() { return kind; }
+    String getTaskId() { return taskId; }
+
+    /**
+     * Category code this write stores, or NONE if it does not write the category column.
+     */
+    int categoryToWrite() {
+        if (kind == Kind.UPSERT || (kind == Kind.UPDATE && (mask & Task.Field.CATEGORY.bit()) != 0)) {
+            return categoryCode;
+        }
+        return CategoryDictionary.NONE;
+    }
+
+    String sql() {
+        switch (kind) {
+            case UPSERT: return DatabaseManager.UPSERT_TASK_SQL;
+            case DELETE: return DatabaseManager.DELETE_TASK_SQL;
+            default: return updateSql(mask);
+        }
+    }
+
+    private static String updateSql(int mask) {
+        String sql = UPDATE_SQL[mask];
+        if (sql == null) {
+            StringBuilder sb = new StringBuilder("UPDATE tasks SET ");
+            boolean first = true;
+            for (Task.Field field : FIELDS) {
+                if ((mask & field.bit()) == 0) continue;
+                if (!first) sb.append(", ");
+                sb.append(COLUMNS[field.ordinal()]).append(" = ?");
+                first = false;
+            }
+            sb.append(" WHERE id = ?");
+            sql = sb.toString();
+            // Racy but harmless: every thread builds the same string
+            UPDATE_SQL[mask] = sql;
+        }
+        return sql;
+    }
+
+    void bind(PreparedStatement stmt, CategoryTable categories) throws SQLException {
+        if (kind == Kind.DELETE) {
+            stmt.setString(1, taskId);
+            return;
+        }
+        if (kind == Kind.UPSERT) {
+            stmt.setString(1, taskId);
+            stmt.setString(2, name);
+            bindCategory(stmt, 3, categories);
+            stmt.setString(4, deadline);
+            stmt.setString(5, priority);
+            stmt.setString(6, status);
+            stmt.setInt(7, momentum);
+            stmt.setString(8, parentId);
+            return;
+        }
+
+        int index = 1;
+        for (Task.Field field : FIELDS) {
+            if ((mask & field.bit()) == 0) continue;
+            switch (field) {
+                case NAME: stmt.setString(index++, name); break;
+                case CATEGORY: bindCategory(stmt, index++, categories); break;
+                case DEADLINE: stmt.setString(index++, deadline); break;
+                case PRIORITY: stmt.setString(index++, priority); break;
+                case STATUS: stmt.setString(index++, status); break;
+                case MOMENTUM: stmt.setInt(index++, momentum); break;
+                case PARENT_ID: stmt.setString(index++, parentId); break;
+            }
+        }
+        stmt.setString(index, taskId);
+    }
+
+    private void bindCategory(PreparedStatement stmt, int index, CategoryTable categories) throws SQLException {
+        if (categoryCode == CategoryDictionary.NONE) {
+            stmt.setNull(index, Types.INTEGER);
+            return;
+        }
+        int id = categories.idOf(categoryCode);
+        if (id == 0) throw new SQLException("Category '" + CategoryDictionary.name(categoryCode) + "' has no row yet");
+        stmt.setInt(index, id);
+    }
+}
@@ -2,14 +2,41 @@ package com.todo.service;
 
 import com.todo.ds.DoublyLinkedList;
 import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.CategoryDictionary;
 import com.todo.model.Priority;
 import com.todo.model.Status;
 import com.todo.model.Task;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class TodoService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_RESIDENT_SUBTREES = 500;
+    // On one CPU the TodoBenchmarks.bulk ladder (1k-100k tasks) found no size where parallel
+    // pays off: from 5,000 tasks up every pass ran 1.0-3.3x slower and allocated 3-52 B/task
+    // more (spliterator batches, fork-join tasks). So a single CPU never forks; 10,000 is for
+    // machines with more cores, to be tuned with the same ladder.
+    public static final int DEFAULT_PARALLEL_THRESHOLD =
+            Runtime.getRuntime().availableProcessors() > 1 ? 10_000 : Integer.MAX_VALUE;
+
     // main tasks list
     private final DoublyLinkedList<Task> tasks = new DoublyLinkedList<>();
 
@@ -19,37 +46,357 @@ public class TodoService {
     // Momentum tracker
     private final MomentumTracker momentumTracker = new MomentumTracker();
 
+    // Bulk passes over at least this many top-level tasks run on the common ForkJoin pool
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    // id / id-prefix / parent lookups, maintained alongside the lists
+    private final TaskIndex index = new TaskIndex();
+
+    // Mutations are persisted in the background so callers (the Swing EDT) never wait on SQLite
+    private final WriteBehindQueue writes;
+
+    // Lazy loading (LoadMode.LAZY only)
+    private final LoadMode loadMode;
+    private final int pageSize;
+    private final int residentSubtrees;
+    private final Consumer<Task> subtaskLoader = this::loadSubtasks;
+    // keyset cursor: momentum and id of the last top-level row read so far
+    private Integer pageMomentum;
+    private String pageId;
+    private boolean morePages;
+    // tasks whose subtasks are in memory, least recently used first
+    private final LinkedHashMap<String, Task> residentParents = new LinkedHashMap<>(16, 0.75f, true);
+    // deleted this session; their rows may still be in the database until the delete is flushed
+    private final Set<String> deletedIds = new HashSet<>();
+
+    // Set while a session is being recorded for replay
+    private SessionRecorder recorder;
+
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+
     private static class UndoRecord {
-        Task task;
+        // the removed node itself, relinked as-is on undo (no new allocation)
+        Node<Task> node;
         // where it was in the list (we store neighbors)
         Node<Task> prev;
         Node<Task> next;
+        // its tie-break key in momentum order, so it returns to exactly the same rank
+        long orderKey;
 
-        UndoRecord(Task task, Node<Task> prev, Node<Task> next) {
-            this.task = task;
+        UndoRecord(Node<Task> node, Node<Task> prev, Node<Task> next, long orderKey) {
+            this.node = node;
             this.prev = prev;
             this.next = next;
+            this.orderKey = orderKey;
         }
     }
 
     public TodoService() {
+        this(Long.getLong("todo.flushIntervalMs", WriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MS),
+                Integer.getInteger("todo.writeQueueCapacity", WriteBehindQueue.DEFAULT_CAPACITY),
+                LoadMode.valueOf(System.getProperty("todo.loadMode", LoadMode.EAGER.name())),
+                Integer.getInteger("todo.pageSize", DEFAULT_PAGE_SIZE),
+                Integer.getInteger("todo.residentSubtrees", DEFAULT_RESIDENT_SUBTREES));
+        setParallelThreshold(Integer.getInteger("todo.parallelThreshold", DEFAULT_PARALLEL_THRESHOLD));
+        recordSessionIfRequested();
+    }
+
+    public TodoService(long flushIntervalMs, int writeQueueCapacity) {
+        this(flushIntervalMs, writeQueueCapacity, LoadMode.EAGER, DEFAULT_PAGE_SIZE, DEFAULT_RESIDENT_SUBTREES);
+    }
+
+    /**
+     * @param pageSize         top-level tasks per page in LAZY mode
+     * @param residentSubtrees how many loaded subtask lists LAZY mode keeps before it starts
+     *                         unloading cold ones (only completed, fully saved subtrees are unloaded)
+     */
+    public TodoService(long flushIntervalMs, int writeQueueCapacity, LoadMode loadMode, int pageSize, int residentSubtrees) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize must be >= 1");
+        if (residentSubtrees < 1) throw new IllegalArgumentException("residentSubtrees must be >= 1");
+        this.loadMode = loadMode;
+        this.pageSize = pageSize;
+        this.residentSubtrees = residentSubtrees;
+
         // Initialize DB
         DatabaseManager.initializeDatabase();
         // Load tasks from DB on startup
         this.tasks.clear(); // Ensure clear start
-        DoublyLinkedList<Task> loadedTasks = DatabaseManager.loadAllTasks();
-        loadedTasks.forEach(this.tasks::addLast);
+        if (loadMode == LoadMode.LAZY) {
+            // Only the first page: startup cost no longer depends on how many tasks are stored
+            this.morePages = true;
+            momentumTracker.track(this.tasks);
+            loadNextPage();
+        } else {
+            DoublyLinkedList<Task> loadedTasks = DatabaseManager.loadAllTasks();
+            loadedTasks.forEach(t -> index.addTree(this.tasks.addLast(t), null));
+            momentumTracker.track(this.tasks);
+        }
+
+        this.writes = new WriteBehindQueue(flushIntervalMs, writeQueueCapacity);
+        DatabaseManager.onShutdown(writes::shutdown);
+    }
+
+    /**
+     * From how many top-level tasks on autoPromotePriorities, updateMomentum and
+     * showMomentumInsights walk the list in parallel. Each subtree stays on one thread.
+     * Defaults to {@link #DEFAULT_PARALLEL_THRESHOLD}, i.e. never on a single CPU.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) throw new IllegalArgumentException("parallelThreshold must be >= 1");
+        this.parallelThreshold = parallelThreshold;
+        momentumTracker.setParallelThreshold(parallelThreshold);
+    }
+
+    /**
+     * Block until every change made so far has been committed to the database.
+     */
+    public void flush() {
+        writes.flush();
+    }
+
+    /**
+     * Drain pending writes and stop the background writer. The service must not be used afterwards.
+     */
+    public void shutdown() {
+        writes.shutdown();
+    }
+
+    /**
+     * Writes waiting for the background writer; 0 once everything has been handed to SQLite.
+     */
+    public int pendingWrites() {
+        return writes.pendingCount();
+    }
+
+    /**
+     * Called on the background writer thread when a flush reports rejected rows or a failed
+     * commit. Memory is then ahead of the database until those tasks are saved again (their
+     * next change, or the next updateMomentum, retries the rows); or see {@link #reconcile}.
+     */
+    public void setPersistenceFailureListener(Consumer<BatchResult> listener) {
+        writes.setFailureListener(listener);
+    }
+
+    // -Dtodo.recordSession=<log>: record from startup. Only the no-argument constructors do this.
+    void recordSessionIfRequested() {
+        String sessionLog = System.getProperty("todo.recordSession");
+        if (sessionLog == null) return;
+        try {
+            startRecording(Paths.get(sessionLog));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Record every operation from now on to a log (plus a snapshot of the database next to it),
+     * so this session can be replayed. Replaces any recording already running.
+     */
+    public void startRecording(Path log) throws IOException {
+        stopRecording();
+        flush(); // the snapshot has to include everything done so far
+        SessionRecorder started = new SessionRecorder(log);
+        this.recorder = started;
+        DatabaseManager.onShutdown(() -> closeQuietly(started));
+    }
+
+    public void stopRecording() {
+        if (recorder == null) return;
+        closeQuietly(recorder);
+        recorder = null;
+    }
+
+    private static void closeQuietly(SessionRecorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void record(SessionRecorder.Operation operation, Object... args) {
+        if (recorder != null) recorder.record(operation, args);
+    }
+
+    public void addTaskListener(TaskListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeTaskListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireTaskAdded(Task task, Task parent) {
+        for (TaskListener listener : listeners) listener.taskAdded(task, parent);
+    }
+
+    private void fireTaskRemoved(Task task, Task parent) {
+        for (TaskListener listener : listeners) listener.taskRemoved(task, parent);
+    }
+
+    void fireTaskChanged(Task task) {
+        Task parent = index.parentOf(task);
+        for (TaskListener listener : listeners) listener.taskChanged(task, parent);
+    }
+
+    private void fireTasksChanged() {
+        for (TaskListener listener : listeners) listener.tasksChanged();
     }
 
     public DoublyLinkedList<Task> getTasks() {
         return tasks;
     }
 
-    public void addTask(String name, String category, LocalDate deadline, Priority priority) {
-        Task newTask = new Task(name, category, deadline, priority);
-        tasks.addLast(newTask);
-        DatabaseManager.saveTask(newTask, null);
+    /**
+     * The list node holding a loaded task (in the top-level list or its parent's subtask
+     * list), or null. Lets a view find a task's neighbours without walking the list.
+     */
+    public Node<Task> nodeOf(Task task) {
+        return index.nodeOf(task.getId());
+    }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    /**
+     * True while LAZY mode has top-level tasks in the database that are not in memory yet.
+     */
+    public boolean hasMorePages() {
+        return morePages;
+    }
+
+    /**
+     * Bring the next page of top-level tasks (by momentum) into memory, without their subtasks.
+     * Returns how many tasks were added; always 0 in EAGER mode.
+     */
+    public int loadNextPage() {
+        return loadNextPage(false);
+    }
+
+    /**
+     * Like {@link #loadNextPage()}, but with {@code withSubtasks} the added tasks' subtask
+     * lists are loaded too, for a view that shows every top-level task with its subtasks.
+     * Every task that comes in is announced with taskAdded, subtasks after their parents.
+     */
+    public int loadNextPage(boolean withSubtasks) {
+        if (!morePages) return 0;
+        List<Task> page = DatabaseManager.loadTopLevelPage(pageMomentum, pageId, pageSize);
+        morePages = page.size() == pageSize;
+        List<Task> added = new ArrayList<>(page.size());
+        for (Task task : page) {
+            pageMomentum = task.getMomentum();
+            pageId = task.getId();
+            // Already resident (looked up by id earlier) or deleted but not flushed yet
+            if (index.get(task.getId()) != null || deletedIds.contains(task.getId())) continue;
+            added.add(addResidentTopLevel(task));
+        }
+        if (withSubtasks) {
+            for (Task task : added) {
+                task.getSubtasks();
+            }
+        }
+        return added.size();
+    }
+
+    private Task addResidentTopLevel(Task task) {
+        task.setSubtaskLoader(subtaskLoader);
+        Node<Task> node = tasks.addLast(task);
+        index.addTree(node, null);
+        momentumTracker.onTaskAdded(node);
+        fireTaskAdded(task, null);
+        return task;
+    }
+
+    // Subtask loader installed on every lazily loaded task; runs on the first getSubtasks()
+    private void loadSubtasks(Task parent) {
+        NodeList<Task> subtasks = parent.getLoadedSubtasks();
+        for (Task sub : DatabaseManager.loadSubtasks(parent.getId())) {
+            if (index.get(sub.getId()) != null || deletedIds.contains(sub.getId())) continue;
+            sub.setSubtaskLoader(subtaskLoader);
+            index.addTree(subtasks.addLast(sub), parent);
+            fireTaskAdded(sub, parent);
+        }
+        residentParents.put(parent.getId(), parent);
+        if (residentParents.size() > residentSubtrees) {
+            evictColdSubtrees(parent);
+        }
+    }
+
+    /**
+     * Unload the subtasks of the least recently used parents until the resident set is back
+     * under its limit. Only completed, fully saved subtrees qualify, and only while the write
+     * queue is idle, so reloading them later from the database gives back exactly the same tasks.
+     * Listeners hear taskRemoved for every unloaded subtask, so views drop them too instead of
+     * holding on to them (or loading them straight back).
+     */
+    private void evictColdSubtrees(Task justLoaded) {
+        if (!writes.isIdle()) return;
+        Iterator<Task> it = residentParents.values().iterator();
+        while (residentParents.size() > residentSubtrees && it.hasNext()) {
+            Task parent = it.next();
+            if (parent == justLoaded || parent.getStatus() != Status.COMPLETED || !isSubtreeClean(parent)) continue;
+            it.remove();
+            NodeList<Task> subtasks = parent.getLoadedSubtasks();
+            for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+                index.removeTree(sub.data);
+                forgetResident(sub.data);
+                fireTaskRemoved(sub.data, parent);
+            }
+            parent.getLoadedSubtasks().clear();
+            parent.setSubtaskLoader(subtaskLoader);
+        }
+    }
+
+    private static boolean isSubtreeClean(Task task) {
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            if (sub.data.needsSave() || !isSubtreeClean(sub.data)) return false;
+        }
+        return true;
+    }
+
+    // Drop a task and its loaded descendants from the resident set (not from the index)
+    private void forgetResident(Task task) {
+        residentParents.remove(task.getId());
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            forgetResident(sub.data);
+        }
+    }
+
+    /**
+     * Make a task that is only in the database resident: a top-level task joins the main list,
+     * a subtask comes in with its parent's subtask list. Returns null if there is no such task.
+     */
+    private Task ensureResident(String id) {
+        Task task = index.get(id);
+        if (task != null) return task;
+        if (deletedIds.contains(id)) return null;
+        Task row = DatabaseManager.loadTask(id);
+        if (row == null) return null;
+        if (row.getParentId() == null) {
+            return addResidentTopLevel(row);
+        }
+        Task parent = ensureResident(row.getParentId());
+        if (parent == null) return null;
+        parent.getSubtasks(); // loads the parent's subtask list, this task included
+        return index.get(id);
+    }
+
+    /**
+     * Returns the new task.
+     */
+    public Task addTask(String name, String category, LocalDate deadline, Priority priority) {
+        Task newTask = newTask(name, category, deadline, priority);
+        Node<Task> node = tasks.addLast(newTask);
+        index.addTree(node, null);
+        momentumTracker.onTaskAdded(node);
+        writes.save(newTask);
+        fireTaskAdded(newTask, null);
+        record(SessionRecorder.Operation.ADD_TASK, newTask.getId(), name, category, deadline, priority);
         System.out.println("✅ Task added.");
+        return newTask;
     }
 
     public void displayAll() {
@@ -57,117 +404,195 @@ public class TodoService {
             System.out.println("(No tasks)");
             return;
         }
-        tasks.forEach(t -> {
+        for (Task t : tasks) {
             System.out.println(t);
-            if (t.getSubtasks().isEmpty()) return;
-            t.getSubtasks().forEach(st -> System.out.println("   ↳ " + st));
-        });
+            for (Task st : t.getSubtasks()) {
+                System.out.println("   ↳ " + st);
+            }
+        }
     }
 
-    public void deleteTaskById(String idPrefix) {
-        Node<Task> node = tasks.find(t -> t.getId().startsWith(idPrefix));
-        if (node == null) {
-            System.out.println("❌ Task not found.");
-            return;
-        }
+    /**
+     * Returns the deleted task, or null if the prefix did not identify one.
+     */
+    public Task deleteTaskById(String idPrefix) {
+        Task task = findUniqueByPrefix(idPrefix, true);
+        if (task == null) return null;
+        Node<Task> node = index.nodeOf(task.getId());
+        // Pull the whole subtree in first: undo has to be able to write it back
+        loadSubtree(task);
+
         // save undo info
-        undo.addLast(new UndoRecord(node.data, node.prev, node.next));
+        undo.addLast(new UndoRecord(node, node.prev, node.next, momentumTracker.orderKeyOf(node.data)));
         tasks.removeNode(node);
-        DatabaseManager.deleteTask(node.data.getId());
+        index.removeTree(node.data);
+        momentumTracker.onTaskRemoved(node.data);
+        writes.delete(node.data);
+        if (loadMode == LoadMode.LAZY) {
+            rememberDeleted(node.data);
+            forgetResident(node.data);
+        }
+        fireTaskRemoved(task, null);
+        record(SessionRecorder.Operation.DELETE, task.getId());
         System.out.println("🗑️ Task deleted. (You can undo)");
+        return task;
     }
 
-    public void undoDelete() {
+    /**
+     * Returns the restored task, or null if there was nothing to undo.
+     */
+    public Task undoDelete() {
         Node<UndoRecord> last = undo.getTail();
         if (last == null) {
             System.out.println("❌ Nothing to undo.");
-            return;
+            return null;
         }
 
         UndoRecord rec = last.data;
         undo.removeNode(last);
 
-        // restore by inserting between prev and next
-        Node<Task> newNode = new Node<>(rec.task);
-
-        // If list empty
-        if (tasks.getHead() == null) {
-            // easiest: addLast
-            tasks.addLast(rec.task);
-            DatabaseManager.saveTask(rec.task, rec.task.getParentId());
-            System.out.println("↩️ Undo restored (as first task).");
-            return;
+        // restore by relinking the same node between its old neighbours, if they are still around
+        Node<Task> node = rec.node;
+        if (rec.prev != null && isLinked(rec.prev)) {
+            tasks.linkAfter(rec.prev, node);
+        } else if (rec.next != null && isLinked(rec.next)) {
+            tasks.linkBefore(rec.next, node);
+        } else if (rec.prev == null) {
+            tasks.linkFirst(node);
+        } else {
+            tasks.linkLast(node);
         }
 
-        // If prev is null -> insert at head
-        if (rec.prev == null) {
-            Node<Task> oldHead = tasks.getHead();
-            newNode.next = oldHead;
-            oldHead.prev = newNode;
-            // set head logic skipped for brevity, simplistic fallback:
-            System.out.println("⚠️ Add insertFirst() in DLL for perfect restore.");
-            tasks.addLast(rec.task); // fallback
-
-            DatabaseManager.saveTask(rec.task, rec.task.getParentId()); // Restore to DB
-            return;
+        if (loadMode == LoadMode.LAZY) {
+            restoreDeleted(node.data);
         }
+        index.addTree(node, null);
+        momentumTracker.onTaskRestored(node, rec.orderKey);
+        writes.saveTree(node.data); // Restore to DB
+        fireTaskAdded(node.data, null);
+        record(SessionRecorder.Operation.UNDO_DELETE, node.data.getId());
 
-        // Otherwise, insert after prev (basic restore)
-        Node<Task> prev = rec.prev;
-        Node<Task> next = rec.next;
+        System.out.println("↩️ Undo restored task.");
+        return node.data;
+    }
 
-        prev.next = newNode;
-        newNode.prev = prev;
+    private static void loadSubtree(Task task) {
+        task.getSubtasks().forEach(TodoService::loadSubtree);
+    }
 
-        if (next != null) {
-            newNode.next = next;
-            next.prev = newNode;
+    private void rememberDeleted(Task task) {
+        deletedIds.add(task.getId());
+        for (Task sub : task.getLoadedSubtasks()) {
+            rememberDeleted(sub);
         }
+    }
 
-        DatabaseManager.saveTask(rec.task, rec.task.getParentId()); // Restore to DB
+    private void restoreDeleted(Task task) {
+        deletedIds.remove(task.getId());
+        if (!task.getLoadedSubtasks().isEmpty()) {
+            residentParents.put(task.getId(), task);
+        }
+        for (Task sub : task.getLoadedSubtasks()) {
+            restoreDeleted(sub);
+        }
+    }
 
-        System.out.println("↩️ Undo restored task.");
+    // A remembered neighbour only counts if it is still in the main list (not deleted since)
+    private boolean isLinked(Node<Task> node) {
+        return index.nodeOf(node.data.getId()) == node && index.isTopLevel(node.data);
     }
 
     private Task findTaskByIdPrefix(String idPrefix) {
-        // First, check main tasks
-        Node<Task> node = tasks.find(t -> t.getId().startsWith(idPrefix));
-        if (node != null) return node.data;
-        // Then, check subtasks of each main task
-        for (Node<Task> mainNode = tasks.getHead(); mainNode != null; mainNode = mainNode.next) {
-            Node<Task> subNode = mainNode.data.getSubtasks().find(st -> st.getId().startsWith(idPrefix));
-            if (subNode != null) return subNode.data;
+        return findUniqueByPrefix(idPrefix, false);
+    }
+
+    // Resolve an id prefix through the index; reports "not found" and "ambiguous" itself
+    Task findUniqueByPrefix(String idPrefix, boolean topLevelOnly) {
+        List<String> matches = matchingIds(idPrefix, topLevelOnly);
+        if (matches.isEmpty()) {
+            System.out.println("❌ Task not found.");
+            return null;
+        }
+        if (matches.size() > 1) {
+            System.out.println("❌ Ambiguous ID prefix '" + idPrefix + "'. Type more characters.");
+            return null;
+        }
+        Task task = ensureResident(matches.get(0));
+        if (task == null) {
+            System.out.println("❌ Task not found.");
         }
-        return null;
+        return task;
     }
 
-    private Task findParent(Task subtask) {
-        for (Node<Task> mainNode = tasks.getHead(); mainNode != null; mainNode = mainNode.next) {
-            if (mainNode.data.getSubtasks().find(st -> st == subtask) != null) {
-                return mainNode.data;
+    // Up to two matching ids. In LAZY mode the database is asked too, for tasks not loaded yet;
+    // the index still has to be asked for new tasks the write queue has not flushed.
+    private List<String> matchingIds(String idPrefix, boolean topLevelOnly) {
+        List<String> ids = new ArrayList<>(2);
+        for (Task task : index.findByPrefix(idPrefix, 2, topLevelOnly)) {
+            ids.add(task.getId());
+        }
+        if (loadMode == LoadMode.LAZY && ids.size() < 2) {
+            for (String id : DatabaseManager.findIdsByPrefix(idPrefix, 3, topLevelOnly)) {
+                if (ids.size() >= 2) break;
+                if (!ids.contains(id) && !deletedIds.contains(id)) ids.add(id);
             }
         }
-        return null;
+        return ids;
+    }
+
+    private Task findParent(Task subtask) {
+        return index.parentOf(subtask);
+    }
+
+    // The top-level task whose subtree holds this task
+    Task rootOf(Task task) {
+        Task parent;
+        while ((parent = index.parentOf(task)) != null) {
+            task = parent;
+        }
+        return task;
+    }
+
+    MomentumTracker momentumTracker() {
+        return momentumTracker;
+    }
+
+    // Every task the service creates comes from here, so subclasses can set new tasks up
+    Task newTask(String name, String category, LocalDate deadline, Priority priority) {
+        return new Task(name, category, deadline, priority);
+    }
+
+    // Give every loaded task a fresh subtask list from the factory, then re-index the moved nodes
+    void replaceSubtaskLists(Supplier<NodeList<Task>> factory) {
+        index.clear();
+        for (Node<Task> node = tasks.getHead(); node != null; node = node.next) {
+            replaceSubtaskLists(node.data, factory);
+            index.addTree(node, null);
+        }
+    }
+
+    private static void replaceSubtaskLists(Task task, Supplier<NodeList<Task>> factory) {
+        task.setSubtaskList(factory.get());
+        task.getLoadedSubtasks().forEach(sub -> replaceSubtaskLists(sub, factory));
     }
 
     // Conditional workflow: parent cannot be completed if any subtask not completed
     public void updateTaskStatus(String idPrefix, Status newStatus) {
         Task task = findTaskByIdPrefix(idPrefix);
-        if (task == null) { System.out.println("❌ Task not found."); return; }
+        if (task == null) return;
 
         momentumTracker.recordInteraction(task, MomentumTracker.InteractionType.WORK);
+        // Recorded even if the change is refused below: the momentum boost already happened
+        record(SessionRecorder.Operation.UPDATE_STATUS, task.getId(), newStatus);
 
-        boolean isMainTask = tasks.find(t -> t == task) != null;
+        boolean isMainTask = index.isTopLevel(task);
 
         if (isMainTask && newStatus == Status.COMPLETED) {
-            boolean allDone = true;
-            Node<Task> st = task.getSubtasks().getHead();
-            while (st != null) {
-                if (st.data.getStatus() != Status.COMPLETED) { allDone = false; break; }
-                st = st.next;
-            }
+            boolean allDone = task.getSubtasks().find((st, done) -> st.getStatus() != done, Status.COMPLETED) == null;
             if (!allDone) {
                 System.out.println("❌ Can't complete parent. Complete all subtasks first.");
+                writes.save(task); // the momentum boost still counts
+                fireTaskChanged(task);
                 return;
             }
         }
@@ -175,7 +600,8 @@ public class TodoService {
         task.setStatus(newStatus);
 
         // Save changes to DB
-        DatabaseManager.saveTask(task, task.getParentId());
+        writes.save(task);
+        fireTaskChanged(task);
 
         // Handle subtask status changes affecting parent
         if (!isMainTask) {
@@ -188,61 +614,73 @@ public class TodoService {
 
                 // Check if all subtasks are completed
                 boolean allCompleted = true;
-                Node<Task> st = parent.getSubtasks().getHead();
+                NodeList<Task> subtasks = parent.getSubtasks();
+                Node<Task> st = subtasks.getHead();
                 while (st != null) {
                     if (st.data.getStatus() != Status.COMPLETED) {
                         allCompleted = false;
                         break;
                     }
-                    st = st.next;
+                    st = subtasks.next(st);
                 }
                 if (allCompleted) {
                     parent.setStatus(Status.COMPLETED);
-                    DatabaseManager.saveTask(parent, null); // Save parent
                 } else if (newStatus == Status.IN_PROGRESS && parent.getStatus() == Status.PENDING) {
                     parent.setStatus(Status.IN_PROGRESS);
-                    DatabaseManager.saveTask(parent, null); // Save parent
                 }
+                writes.save(parent); // Save parent (status and/or momentum boost; no-op if unchanged)
+                fireTaskChanged(parent);
             }
         }
 
+        // recordInteraction has already moved any top-level task whose momentum changed
         System.out.println("✅ Status updated.");
-
-        // Auto-reorder by momentum
-        momentumTracker.reorderByMomentum(tasks);
     }
 
-    public void addSubtask(String parentIdPrefix, String name, LocalDate deadline, Priority priority) {
-        Node<Task> node = tasks.find(t -> t.getId().startsWith(parentIdPrefix));
-        if (node == null) { System.out.println("❌ Parent task not found."); return; }
+    /**
+     * Returns the new subtask, or null if the prefix did not identify a top-level task.
+     */
+    public Task addSubtask(String parentIdPrefix, String name, LocalDate deadline, Priority priority) {
+        Task parent = findUniqueByPrefix(parentIdPrefix, true);
+        if (parent == null) return null;
+        Node<Task> node = index.nodeOf(parent.getId());
 
         // Record interaction when adding subtask
         momentumTracker.recordInteraction(node.data, MomentumTracker.InteractionType.COMMENT);
+        writes.save(node.data);
+        fireTaskChanged(node.data);
 
-        Task sub = new Task(name, node.data.getCategory(), deadline, priority);
+        Task sub = newTask(name, node.data.getCategory(), deadline, priority);
         // Fix: Set parent ID for potential later updates
         sub.setParentId(node.data.getId());
-        node.data.getSubtasks().addLast(sub);
+        index.addTree(node.data.getSubtasks().addLast(sub), node.data);
 
         // Save subtask
-        DatabaseManager.saveTask(sub, node.data.getId());
+        writes.save(sub);
+        fireTaskAdded(sub, node.data);
+        record(SessionRecorder.Operation.ADD_SUBTASK, sub.getId(), parent.getId(), name, deadline, priority);
 
         System.out.println("✅ Subtask added.");
+        return sub;
     }
 
     // Priority promotion by deadline/aging (simple version)
     public String autoPromotePriorities() {
         LocalDate today = LocalDate.now();
-        int[] promoted = {0};
 
-        // Recursively promote priorities and save changes
-        tasks.forEach(t -> checkAndPromote(t, today, promoted));
+        // Recursively promote priorities and save changes; subtrees are independent, so large
+        // lists are split across threads (the write-behind queue takes saves from any thread)
+        int promoted = tasks.stream(parallelThreshold).mapToInt(t -> checkAndPromote(t, today)).sum();
+        if (promoted > 0) fireTasksChanged();
+        record(SessionRecorder.Operation.AUTO_PROMOTE);
 
-        return "⚡ Auto promotion done (based on deadlines). Promoted " + promoted[0] + " tasks.";
+        return "⚡ Auto promotion done (based on deadlines). Promoted " + promoted + " tasks.";
     }
 
-    private void checkAndPromote(Task t, LocalDate today, int[] promoted) {
+    // Returns how many tasks of this subtree were promoted
+    private int checkAndPromote(Task t, LocalDate today) {
         boolean changed = false;
+        int promoted = 0;
 
         if (t.getDeadline() != null) {
             long daysLeft = java.time.temporal.ChronoUnit.DAYS.between(today, t.getDeadline());
@@ -251,55 +689,228 @@ public class TodoService {
             if (daysLeft < 0) {
                 if (t.getPriority() != Priority.CRITICAL) {
                     t.setPriority(Priority.CRITICAL);
-                    promoted[0]++;
+                    promoted++;
                     changed = true;
                 }
             } else if (daysLeft <= 1 && t.getPriority().ordinal() < Priority.HIGH.ordinal()) {
                 t.setPriority(Priority.HIGH);
-                promoted[0]++;
+                promoted++;
                 changed = true;
             } else if (daysLeft <= 3 && t.getPriority().ordinal() < Priority.MEDIUM.ordinal()) {
                 t.setPriority(Priority.MEDIUM);
-                promoted[0]++;
+                promoted++;
                 changed = true;
             }
         }
 
         if (changed) {
             // Save updated priority to DB. Use existing parent ID.
-            DatabaseManager.saveTask(t, t.getParentId());
+            writes.save(t);
         }
 
         // Recurse for subtasks
-        t.getSubtasks().forEach(sub -> checkAndPromote(sub, today, promoted));
+        for (Task sub : t.getLoadedSubtasks()) {
+            promoted += checkAndPromote(sub, today);
+        }
+        return promoted;
     }
 
     public void updateMomentum() {
         momentumTracker.applyDecay(tasks);
         momentumTracker.reorderByMomentum(tasks);
 
-        // Save all updated momentums
-        tasks.forEach(task -> DatabaseManager.saveTask(task, null));
+        // Save only the momentums that actually changed (subtasks included)
+        writes.saveDirty(tasks);
+        fireTasksChanged();
+        record(SessionRecorder.Operation.UPDATE_MOMENTUM);
 
         System.out.println("⏰ Momentum updated based on time decay.");
     }
 
+    /**
+     * Bring memory back in line with the database after a background write failed: a task
+     * whose row did not make it takes the stored values again, or leaves the list (with its
+     * subtasks) if it was never stored. Tasks with a newer write still queued are left alone,
+     * that write reports its own outcome; so are failed deletes, which the write queue sends
+     * again with the next save or flush. Returns how many tasks were reverted.
+     */
+    public int reconcile(BatchResult failed) {
+        int reverted = 0;
+        for (BatchResult.RowOutcome row : failed.getRows()) {
+            if (row.getOutcome() == BatchResult.Outcome.WRITTEN) continue;
+            Task task = index.get(row.getTaskId());
+            if (task == null || writes.isQueued(task.getId())) continue;
+            Task stored;
+            try {
+                stored = DatabaseManager.findTask(task.getId());
+            } catch (SQLException e) {
+                // Cannot tell what is stored; keep memory as it is rather than guess
+                System.out.println("❌ Could not reconcile task " + task.getId() + ": " + e.getMessage());
+                continue;
+            }
+            if (stored == null) {
+                removeUnsaved(task);
+            } else {
+                revertTo(task, stored);
+            }
+            writes.forgetUnsaved(task.getId()); // nothing left to retry
+            reverted++;
+        }
+        if (reverted > 0) {
+            System.out.println("↩️ Reverted " + reverted + " unsaved task(s) to the stored state.");
+        }
+        return reverted;
+    }
+
+    private void removeUnsaved(Task task) {
+        Task parent = index.parentOf(task);
+        Node<Task> node = index.nodeOf(task.getId());
+        index.removeTree(task);
+        forgetResident(task);
+        if (parent == null) {
+            tasks.removeNode(node);
+            momentumTracker.onTaskRemoved(task);
+        } else {
+            parent.getLoadedSubtasks().removeNode(node);
+        }
+        fireTaskRemoved(task, parent);
+    }
+
+    private void revertTo(Task task, Task stored) {
+        task.setName(stored.getName());
+        task.setCategory(stored.getCategory());
+        task.setDeadline(stored.getDeadline());
+        task.setPriority(stored.getPriority());
+        task.setStatus(stored.getStatus());
+        task.setMomentum(stored.getMomentum());
+        task.markClean(); // these are the stored values
+        momentumTracker.reposition(task);
+        fireTaskChanged(task);
+    }
+
     public String showMomentumInsights() {
         return momentumTracker.showInsights(tasks);
     }
 
+    /**
+     * Every loaded task (subtasks included), parents before their subtasks.
+     */
+    public List<Task> loadedTasks() {
+        List<Task> all = new ArrayList<>();
+        for (Task t : tasks) {
+            LiveQuery.collect(t, all);
+        }
+        return all;
+    }
+
+    /**
+     * The loaded tasks (subtasks included) that match the query, in its order. A one-off
+     * search; {@link LiveQuery} keeps a result up to date as tasks change.
+     */
+    public List<Task> query(TaskQuery query) {
+        List<Task> found = new ArrayList<>();
+        for (Task t : loadedTasks()) {
+            if (query.matches(t)) found.add(t);
+        }
+        found.sort(query.order());
+        return found;
+    }
+
+    /**
+     * Ranked full-text search over the names and categories of every stored task, loaded or
+     * not. A word matches as a prefix ("rep" finds "Report"), a "quoted phrase" only as
+     * written; all terms have to match. Every match is ranked and the best come first, with
+     * name matches weighing more than category ones. Loaded tasks come back as themselves,
+     * the others as rows read from the database (without subtasks). Flushes first, so every
+     * change made before the call is found.
+     *
+     * Ranking a broad term over a large archive takes a few hundred milliseconds; see
+     * {@link #search(String, int, int)} for a bounded alternative.
+     */
+    public List<Task> search(String text, int limit) {
+        return search(text, limit, 0);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, but with a positive {@code rankWindow} only the
+     * newest {@code rankWindow} matches (the most recently stored tasks) are ranked, so a broad
+     * term over a million tasks stays within tens of milliseconds. The result is then the
+     * best of those, not of all matches: an older task that would rank higher is left out.
+     * A search with fewer matches than the window ranks them all either way. 0 ranks every match.
+     */
+    public List<Task> search(String text, int limit, int rankWindow) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be >= 1");
+        if (rankWindow < 0) throw new IllegalArgumentException("rankWindow must be >= 0");
+        writes.flush();
+        return residentOrStored(DatabaseManager.searchTasks(text, limit, rankWindow));
+    }
+
+    // The loaded task for each row where there is one; deleted tasks are already gone after the flush
+    List<Task> residentOrStored(List<Task> rows) {
+        List<Task> tasks = new ArrayList<>(rows.size());
+        for (Task row : rows) {
+            Task loaded = index.get(row.getId());
+            tasks.add(loaded != null ? loaded : row);
+        }
+        return tasks;
+    }
+
+    /**
+     * Loaded tasks (subtasks included) in the category, parents before their subtasks.
+     * The name is looked up in the CategoryDictionary once; the walk only compares codes.
+     */
+    public List<Task> findByCategory(String category) {
+        List<Task> found = new ArrayList<>();
+        int code = CategoryDictionary.lookup(category);
+        // A name the dictionary has never seen cannot be on any task
+        if (code != CategoryDictionary.NONE || category == null) {
+            collectByCategory(tasks, code, found);
+        }
+        return found;
+    }
+
+    private void collectByCategory(NodeList<Task> list, int code, List<Task> found) {
+        for (Task t : list) {
+            if (t.getCategoryCode() == code) found.add(t);
+            collectByCategory(t.getLoadedSubtasks(), code, found);
+        }
+    }
+
+    /**
+     * Number of loaded tasks (subtasks included) per category, counted by dictionary code;
+     * uncategorized tasks are under the null key.
+     */
+    public Map<String, Integer> countByCategory() {
+        int[] counts = countByCategory(tasks, new int[CategoryDictionary.size() + 1]);
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) byName.put(CategoryDictionary.name(slot - 1), counts[slot]);
+        }
+        return byName;
+    }
+
+    // Slot 0 is no category, slot code + 1 a category
+    private int[] countByCategory(NodeList<Task> list, int[] counts) {
+        for (Task t : list) {
+            int slot = t.getCategoryCode() + 1;
+            if (slot >= counts.length) counts = Arrays.copyOf(counts, CategoryDictionary.size() + 1);
+            counts[slot]++;
+            counts = countByCategory(t.getLoadedSubtasks(), counts);
+        }
+        return counts;
+    }
+
     // Work on a task (simulate interaction)
     public void workOnTask(String idPrefix) {
         Task task = findTaskByIdPrefix(idPrefix);
-        if (task == null) {
-            System.out.println("❌ Task not found.");
-            return;
-        }
+        if (task == null) return;
 
+        // Also moves the task to its new place in momentum order
         momentumTracker.recordInteraction(task, MomentumTracker.InteractionType.WORK);
-        momentumTracker.reorderByMomentum(tasks);
         // Save momentum update
-        DatabaseManager.saveTask(task, task.getParentId());
+        writes.save(task);
+        fireTaskChanged(task);
+        record(SessionRecorder.Operation.WORK, task.getId());
 
         System.out.println("✅ Worked on task: " + task.getName());
     }
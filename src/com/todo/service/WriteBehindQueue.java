@@ -0,0 +1,419 @@
+package com.todo.service;
+
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence for TodoService.
+ * Mutations are snapshotted on the caller's thread (the Swing EDT in the GUI) and queued;
+ * a background writer thread flushes them to SQLite in group-committed transactions.
+ *
+ * - Only tasks with unsaved changes are queued, and existing rows only get their dirty columns.
+ * - Writes are coalesced per task id: the last write wins, but the row keeps the queue
+ *   position of its first write so parents still reach the database before their children.
+ * - The queue is bounded: once {@code capacity} distinct tasks are waiting, producers block
+ *   until the writer catches up (updates to a task that is already queued never block).
+ * - {@link #flush()} is a durability barrier: it returns once everything queued before the
+ *   call has been committed (or has failed and been reported).
+ * - A task's dirty bits are cleared when its write is queued, so later changes queue a new
+ *   write. A write that does not commit (rejected row, rolled-back or failed transaction) is
+ *   kept, and the task gets those bits back on the next {@link #save} of it or the next
+ *   {@link #saveDirty}, on the caller's thread, so the change is written again. A delete that
+ *   does not commit has no task left to mark: it is queued again by the next save of any task,
+ *   {@link #saveDirty} or {@link #flush()}, so the row does not come back on the next load.
+ * - {@link #shutdown()} stops accepting writes and drains what is left.
+ */
+public class WriteBehindQueue {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 100;
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final long flushIntervalMs;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+
+    // Guarded by lock
+    private LinkedHashMap<String, TaskWrite> pending = new LinkedHashMap<>();
+    private long enqueuedSeq = 0;   // bumped on every accepted write
+    private long committedSeq = 0;  // highest enqueuedSeq that has been written out
+    private long flushRequestedSeq = 0;
+    private boolean shuttingDown = false;
+    // Writes that did not commit, by task id, until their task is given its dirty bits back
+    private final LinkedHashMap<String, TaskWrite> unsaved = new LinkedHashMap<>();
+    // Deletes that did not commit, by task id, until they are queued again
+    private final LinkedHashMap<String, TaskWrite> unsavedDeletes = new LinkedHashMap<>();
+    // Lets save() skip the lock while nothing failed
+    private volatile boolean hasUnsaved = false;
+
+    private final Thread writer;
+    private volatile Consumer<BatchResult> failureListener = result ->
+            System.out.println("❌ Background save had problems: " + result);
+
+    // Counters, only touched by the writer thread
+    private volatile long flushes = 0;
+    private volatile long rowsWritten = 0;
+
+    public WriteBehindQueue() {
+        this(DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_CAPACITY);
+    }
+
+    public WriteBehindQueue(long flushIntervalMs, int capacity) {
+        if (flushIntervalMs < 1) throw new IllegalArgumentException("flushIntervalMs must be >= 1");
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.flushIntervalMs = flushIntervalMs;
+        this.capacity = capacity;
+
+        this.writer = new Thread(this::runWriter, "db-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue this task's own row (not its subtasks) if it has unsaved changes, including any
+     * from an earlier write of it that did not commit.
+     * Only the dirty columns are written for rows that already exist.
+     */
+    public void save(Task task) {
+        if (hasUnsaved) restoreUnsaved(task.getId());
+        TaskWrite write = TaskWrite.changes(task);
+        if (write == null) return;
+        task.markClean();
+        enqueue(write, null);
+    }
+
+    /**
+     * Queue every task with unsaved changes in these trees; clean rows cost nothing.
+     * Writes that did not commit are retried, whichever tasks they were for.
+     */
+    public void saveDirty(NodeList<Task> roots) {
+        if (hasUnsaved) restoreUnsaved(null);
+        saveDirtyTrees(roots);
+    }
+
+    private void saveDirtyTrees(NodeList<Task> roots) {
+        for (Node<Task> node = roots.getHead(); node != null; node = roots.next(node)) {
+            save(node.data);
+            saveDirtyTrees(node.data.getLoadedSubtasks());
+        }
+    }
+
+    /**
+     * Queue full upserts for the task and its whole subtree, parents first.
+     */
+    public void saveTree(Task task) {
+        List<TaskWrite> writes = new ArrayList<>();
+        DatabaseManager.collectTree(task, task.getParentId(), writes);
+        markTreeClean(task);
+        if (hasUnsaved) forgetUnsaved(writes);
+        for (TaskWrite write : writes) {
+            enqueue(write, null);
+        }
+    }
+
+    private static void markTreeClean(Task task) {
+        task.markClean();
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            markTreeClean(sub.data);
+        }
+    }
+
+    /**
+     * Queue a delete. The database cascades it to the subtasks, so any writes still queued
+     * for them are dropped instead of being replayed against a deleted parent.
+     */
+    public void delete(Task task) {
+        enqueue(TaskWrite.delete(task.getId()), task);
+    }
+
+    /**
+     * Called when a background flush reports rejected rows or a failed commit. The rows
+     * (deletes too) are retried by later saves whatever the listener does, unless it calls
+     * {@link #forgetUnsaved}.
+     */
+    public void setFailureListener(Consumer<BatchResult> listener) {
+        this.failureListener = listener;
+    }
+
+    private void enqueue(TaskWrite write, Task deletedSubtree) {
+        lock.lock();
+        try {
+            if (shuttingDown) {
+                throw new IllegalStateException("Write-behind queue is shut down");
+            }
+            while (pending.size() >= capacity && !pending.containsKey(write.getTaskId())) {
+                notFull.awaitUninterruptibly();
+                if (shuttingDown) throw new IllegalStateException("Write-behind queue is shut down");
+            }
+            if (deletedSubtree != null) {
+                unsaved.remove(write.getTaskId());
+                dropDescendants(deletedSubtree);
+                updateHasUnsaved();
+            }
+            pending.merge(write.getTaskId(), write, TaskWrite::mergeWith);
+            enqueuedSeq++;
+            // Wake the writer to start its flush timer, or right away when producers are about to block
+            if (pending.size() == 1 || pending.size() >= capacity) {
+                workAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dropDescendants(Task task) {
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            pending.remove(sub.data.getId());
+            unsaved.remove(sub.data.getId());
+            unsavedDeletes.remove(sub.data.getId());
+            dropDescendants(sub.data);
+        }
+    }
+
+    // Give the task (or, for null, every task) with a write that did not commit its dirty bits
+    // back, and queue every delete that did not commit again
+    private void restoreUnsaved(String taskId) {
+        List<TaskWrite> restore = new ArrayList<>();
+        lock.lock();
+        try {
+            if (taskId == null) {
+                restore.addAll(unsaved.values());
+                unsaved.clear();
+            } else {
+                TaskWrite write = unsaved.remove(taskId);
+                if (write != null) restore.add(write);
+            }
+            updateHasUnsaved();
+        } finally {
+            lock.unlock();
+        }
+        for (TaskWrite write : restore) {
+            write.markUnsaved();
+        }
+        requeueDeletes();
+    }
+
+    private void requeueDeletes() {
+        List<TaskWrite> deletes;
+        lock.lock();
+        try {
+            if (unsavedDeletes.isEmpty()) return;
+            deletes = new ArrayList<>(unsavedDeletes.values());
+            unsavedDeletes.clear();
+            updateHasUnsaved();
+        } finally {
+            lock.unlock();
+        }
+        // The subtrees' queued writes were dropped when the deletes were first queued
+        for (TaskWrite delete : deletes) {
+            enqueue(delete, null);
+        }
+    }
+
+    private void forgetUnsaved(List<TaskWrite> writes) {
+        lock.lock();
+        try {
+            for (TaskWrite write : writes) {
+                unsaved.remove(write.getTaskId());
+                unsavedDeletes.remove(write.getTaskId());
+            }
+            updateHasUnsaved();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Call with the lock held
+    private void updateHasUnsaved() {
+        hasUnsaved = !unsaved.isEmpty() || !unsavedDeletes.isEmpty();
+    }
+
+    /**
+     * Do not retry a write for this task that did not commit, e.g. because the task has been
+     * put back to what is stored.
+     */
+    public void forgetUnsaved(String taskId) {
+        lock.lock();
+        try {
+            unsaved.remove(taskId);
+            unsavedDeletes.remove(taskId);
+            updateHasUnsaved();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Block until every write queued before this call has been committed. Deletes that did not
+     * commit earlier are queued again first.
+     */
+    public void flush() {
+        if (hasUnsaved) requeueDeletes();
+        lock.lock();
+        try {
+            long target = enqueuedSeq;
+            if (committedSeq >= target) return;
+            flushRequestedSeq = Math.max(flushRequestedSeq, target);
+            workAvailable.signal();
+            while (committedSeq < target) {
+                committed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting writes, drain everything still queued and stop the writer thread.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            if (shuttingDown) return;
+            shuttingDown = true;
+            workAvailable.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * True while a write for this task is waiting for the writer (not yet taken into a batch).
+     */
+    public boolean isQueued(String taskId) {
+        lock.lock();
+        try {
+            return pending.containsKey(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True when nothing is queued or in flight, i.e. the database matches memory.
+     */
+    public boolean isIdle() {
+        lock.lock();
+        try {
+            return pending.isEmpty() && committedSeq >= enqueuedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushes() { return flushes; }
+    public long getRowsWritten() { return rowsWritten; }
+
+    private void runWriter() {
+        while (true) {
+            List<TaskWrite> batch;
+            long batchSeq;
+
+            lock.lock();
+            try {
+                while (!shuttingDown && pending.isEmpty()) {
+                    workAvailable.awaitUninterruptibly();
+                }
+
+                // Give more writes a chance to pile up for the same commit, unless someone
+                // is waiting on a flush, producers are about to block, or we are shutting down
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (!shuttingDown && flushRequestedSeq <= committedSeq && pending.size() < capacity) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    try {
+                        workAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        // Only shutdown() stops the writer
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    // Only reachable when shutting down with nothing left to write
+                    committedSeq = enqueuedSeq;
+                    committed.signalAll();
+                    return;
+                }
+
+                batch = new ArrayList<>(pending.values());
+                batchSeq = enqueuedSeq;
+                pending = new LinkedHashMap<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                BatchResult result = DatabaseManager.applyWrites(batch);
+                flushes++;
+                rowsWritten += result.count(BatchResult.Outcome.WRITTEN);
+                if (!result.isFullySuccessful()) {
+                    keepUnsaved(batch, result);
+                    failureListener.accept(result);
+                }
+            } catch (RuntimeException e) {
+                // Keep the writer alive, otherwise every later flush() would wait forever
+                keepUnsaved(batch, null);
+                e.printStackTrace();
+            }
+
+            lock.lock();
+            try {
+                committedSeq = batchSeq;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Rows come back in batch order; a null result means none of them was written
+    private void keepUnsaved(List<TaskWrite> batch, BatchResult result) {
+        lock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                TaskWrite write = batch.get(i);
+                if (result != null && result.getRows().get(i).getOutcome() == BatchResult.Outcome.WRITTEN) continue;
+                if (write.getKind() == TaskWrite.Kind.DELETE) {
+                    // A write queued since (undo) brings the task back; the delete is moot
+                    if (!pending.containsKey(write.getTaskId())) unsavedDeletes.put(write.getTaskId(), write);
+                    continue;
+                }
+                // Two failed writes for one task are retried as one
+                unsaved.merge(write.getTaskId(), write, TaskWrite::mergeWith);
+            }
+            updateHasUnsaved();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.todo.store;
+
+import com.todo.model.CategoryDictionary;
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * TaskStore on the heap, one primitive array per column (struct of arrays). Like every
+ * TaskStore it is a standalone copy for bulk scans, not the task list TodoService works on.
+ *
+ * A task costs about 70 bytes plus its name in UTF-8 (columns and id table), against over
+ * 400 for a Task loaded from the database (Task, UUID and name Strings, LocalDate, subtask
+ * list and list node); bench/StoreFootprint measures both.
+ * Names are appended to one shared byte arena; renaming appends
+ * again and leaves the old bytes behind. Categories are stored as CategoryDictionary codes,
+ * the same ones Task uses.
+ *
+ * Bulk passes (applyDecay, promoteByDeadline) are plain counted loops over int and byte
+ * arrays with the branches written as selects, the shape the JIT's auto-vectorizer needs.
+ */
+public class ColumnarTaskStore implements TaskStore {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final byte REMOVED = 1;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MOMENTUM_BIT = Task.Field.MOMENTUM.bit();
+    private static final int PRIORITY_BIT = Task.Field.PRIORITY.bit();
+
+    private int rows;
+    private int live;
+
+    private long[] idHigh;
+    private long[] idLow;
+    private int[] nameOffset;
+    private int[] nameLength;   // -1 for a null name
+    private int[] category;     // code, -1 for null
+    private int[] deadline;     // epoch day or NO_DEADLINE
+    private byte[] priority;
+    private byte[] status;
+    private int[] momentum;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] lastChild;
+    private int[] nextSibling;
+    private int[] touched;      // epoch minute of the last interaction, 0 = never
+    private byte[] dirty;
+    private byte[] flags;
+
+    private byte[] names = new byte[16 * DEFAULT_CAPACITY];
+    private int namesUsed;
+
+    private final IdTable ids = new IdTable(this);
+
+    public ColumnarTaskStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarTaskStore(int initialCapacity) {
+        allocate(Math.max(16, initialCapacity));
+    }
+
+    private void allocate(int capacity) {
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        nameOffset = new int[capacity];
+        nameLength = new int[capacity];
+        category = new int[capacity];
+        deadline = new int[capacity];
+        priority = new byte[capacity];
+        status = new byte[capacity];
+        momentum = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+        touched = new int[capacity];
+        dirty = new byte[capacity];
+        flags = new byte[capacity];
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= idHigh.length) return;
+        resize(Math.max(needed, idHigh.length * 2));
+    }
+
+    @Override
+    public void trimToSize() {
+        resize(Math.max(16, rows));
+        names = Arrays.copyOf(names, namesUsed);
+    }
+
+    private void resize(int capacity) {
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        nameOffset = Arrays.copyOf(nameOffset, capacity);
+        nameLength = Arrays.copyOf(nameLength, capacity);
+        category = Arrays.copyOf(category, capacity);
+        deadline = Arrays.copyOf(deadline, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        status = Arrays.copyOf(status, capacity);
+        momentum = Arrays.copyOf(momentum, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        lastChild = Arrays.copyOf(lastChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        touched = Arrays.copyOf(touched, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    @Override
+    public int rowCount() { return rows; }
+
+    @Override
+    public int size() { return live; }
+
+    @Override
+    public boolean isLive(int row) {
+        return row >= 0 && row < rows && (flags[row] & REMOVED) == 0;
+    }
+
+    @Override
+    public int add(String id, String name, String category, LocalDate deadline, Priority priority, Status status, int momentum) {
+        ensureCapacity(rows + 1);
+        int row = rows++;
+        idHigh[row] = IdTable.high(id);
+        idLow[row] = IdTable.low(id);
+        storeName(row, name);
+        this.category[row] = CategoryDictionary.code(category);
+        this.deadline[row] = deadline == null ? NO_DEADLINE : (int) deadline.toEpochDay();
+        this.priority[row] = (byte) priority.ordinal();
+        this.status[row] = (byte) status.ordinal();
+        this.momentum[row] = momentum;
+        parent[row] = NO_ROW;
+        firstChild[row] = NO_ROW;
+        lastChild[row] = NO_ROW;
+        nextSibling[row] = NO_ROW;
+        live++;
+        ids.put(row);
+        return row;
+    }
+
+    @Override
+    public void linkSubtask(int parentRow, int row) {
+        if (parent[row] != NO_ROW) throw new IllegalArgumentException("Row " + row + " already has a parent");
+        parent[row] = parentRow;
+        if (lastChild[parentRow] == NO_ROW) {
+            firstChild[parentRow] = row;
+        } else {
+            nextSibling[lastChild[parentRow]] = row;
+        }
+        lastChild[parentRow] = row;
+    }
+
+    @Override
+    public void remove(int row) {
+        if (!isLive(row)) return;
+        int p = parent[row];
+        if (p != NO_ROW) {
+            // Unhook from the parent's sibling chain
+            int prev = NO_ROW;
+            for (int c = firstChild[p]; c != row; c = nextSibling[c]) prev = c;
+            if (prev == NO_ROW) firstChild[p] = nextSibling[row]; else nextSibling[prev] = nextSibling[row];
+            if (lastChild[p] == row) lastChild[p] = prev;
+        }
+        markRemoved(row);
+    }
+
+    private void markRemoved(int row) {
+        flags[row] |= REMOVED;
+        live--;
+        for (int c = firstChild[row]; c != NO_ROW; c = nextSibling[c]) {
+            markRemoved(c);
+        }
+    }
+
+    @Override
+    public int find(String id) {
+        return ids.find(IdTable.high(id), IdTable.low(id));
+    }
+
+    @Override public long idHigh(int row) { return idHigh[row]; }
+    @Override public long idLow(int row) { return idLow[row]; }
+    @Override public String id(int row) { return IdTable.format(idHigh[row], idLow[row]); }
+
+    @Override
+    public String name(int row) {
+        int length = nameLength[row];
+        return length < 0 ? null : new String(names, nameOffset[row], length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String category(int row) {
+        return CategoryDictionary.name(category[row]);
+    }
+
+    @Override public int categoryCode(int row) { return category[row]; }
+    @Override public int deadlineEpochDay(int row) { return deadline[row]; }
+    @Override public Priority priority(int row) { return PRIORITIES[priority[row]]; }
+    @Override public Status status(int row) { return STATUSES[status[row]]; }
+    @Override public int momentum(int row) { return momentum[row]; }
+    @Override public int parent(int row) { return parent[row]; }
+    @Override public int firstSubtask(int row) { return firstChild[row]; }
+    @Override public int nextSibling(int row) { return nextSibling[row]; }
+
+    @Override
+    public void setName(int row, String name) {
+        if (!Objects.equals(name(row), name)) {
+            storeName(row, name);
+            markDirty(row, Task.Field.NAME.bit());
+        }
+    }
+
+    @Override
+    public void setCategory(int row, String category) {
+        int code = CategoryDictionary.code(category);
+        if (this.category[row] != code) {
+            this.category[row] = code;
+            markDirty(row, Task.Field.CATEGORY.bit());
+        }
+    }
+
+    @Override
+    public void setDeadline(int row, LocalDate deadline) {
+        int day = deadline == null ? NO_DEADLINE : (int) deadline.toEpochDay();
+        if (this.deadline[row] != day) {
+            this.deadline[row] = day;
+            markDirty(row, Task.Field.DEADLINE.bit());
+        }
+    }
+
+    @Override
+    public void setPriority(int row, Priority priority) {
+        if (this.priority[row] != priority.ordinal()) {
+            this.priority[row] = (byte) priority.ordinal();
+            markDirty(row, PRIORITY_BIT);
+        }
+    }
+
+    @Override
+    public void setStatus(int row, Status status) {
+        if (this.status[row] != status.ordinal()) {
+            this.status[row] = (byte) status.ordinal();
+            markDirty(row, Task.Field.STATUS.bit());
+        }
+    }
+
+    @Override
+    public void setMomentum(int row, int momentum) {
+        if (this.momentum[row] != momentum) {
+            this.momentum[row] = momentum;
+            markDirty(row, MOMENTUM_BIT);
+        }
+    }
+
+    @Override public int dirtyMask(int row) { return dirty[row]; }
+    @Override public void markDirty(int row, int fields) { dirty[row] |= (byte) fields; }
+    @Override public void markClean(int row) { dirty[row] = 0; }
+
+    @Override
+    public void touch(int row, LocalDateTime when) {
+        touched[row] = TaskStore.epochMinute(when);
+    }
+
+    @Override
+    public int applyDecay(LocalDateTime now, int dailyDecay, int threeDayDecay, int weeklyDecay) {
+        int nowMinute = TaskStore.epochMinute(now);
+        int changed = 0;
+        for (int i = 0; i < rows; i++) {
+            int last = touched[i];
+            int age = nowMinute - last;
+            int decay = age >= 7 * MINUTES_PER_DAY ? weeklyDecay
+                    : age >= 3 * MINUTES_PER_DAY ? threeDayDecay
+                    : age >= MINUTES_PER_DAY ? dailyDecay : 0;
+            boolean skip = last == 0 || (flags[i] & REMOVED) != 0;
+            int m = momentum[i];
+            int next = skip || decay == 0 ? m : Math.max(0, m - decay);
+            touched[i] = last == 0 ? nowMinute : last;
+            momentum[i] = next;
+            int moved = next != m ? 1 : 0;
+            dirty[i] |= (byte) (moved * MOMENTUM_BIT);
+            changed += moved;
+        }
+        return changed;
+    }
+
+    @Override
+    public int promoteByDeadline(LocalDate today) {
+        int day = (int) today.toEpochDay();
+        int critical = Priority.CRITICAL.ordinal();
+        int high = Priority.HIGH.ordinal();
+        int medium = Priority.MEDIUM.ordinal();
+        int promoted = 0;
+        for (int i = 0; i < rows; i++) {
+            int d = deadline[i];
+            int p = priority[i];
+            // Overdue: critical; due within a day: at least high; within three: at least medium
+            long left = (long) d - day;
+            int floor = left < 0 ? critical : left <= 1 ? high : left <= 3 ? medium : 0;
+            boolean skip = d == NO_DEADLINE || (flags[i] & REMOVED) != 0;
+            int next = skip ? p : Math.max(p, floor);
+            priority[i] = (byte) next;
+            int raised = next != p ? 1 : 0;
+            dirty[i] |= (byte) (raised * PRIORITY_BIT);
+            promoted += raised;
+        }
+        return promoted;
+    }
+
+    private void storeName(int row, String name) {
+        if (name == null) {
+            nameLength[row] = -1;
+            return;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (namesUsed + bytes.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesUsed + bytes.length, Math.max(16, names.length * 2)));
+        }
+        System.arraycopy(bytes, 0, names, namesUsed, bytes.length);
+        nameOffset[row] = namesUsed;
+        nameLength[row] = bytes.length;
+        namesUsed += bytes.length;
+    }
+}
@@ -0,0 +1,73 @@
+package com.todo.store;
+
+import java.util.UUID;
+
+/**
+ * Id -> row lookup for a TaskStore: open addressing over an int[] of row numbers, comparing
+ * against the store's own id columns, so it costs 4-8 bytes per task and never boxes.
+ * Rows of removed tasks stay in the table (a re-added id gets a new row); lookups skip them.
+ */
+final class IdTable {
+
+    private final TaskStore store;
+    private int[] slots = new int[16]; // row + 1, 0 = empty
+    private int used;
+
+    IdTable(TaskStore store) {
+        this.store = store;
+    }
+
+    static long high(String id) {
+        return UUID.fromString(id).getMostSignificantBits();
+    }
+
+    static long low(String id) {
+        return UUID.fromString(id).getLeastSignificantBits();
+    }
+
+    static String format(long high, long low) {
+        return new UUID(high, low).toString();
+    }
+
+    void put(int row) {
+        if ((used + 1) * 4 > slots.length * 3) grow(); // load factor 3/4
+        insert(slots, row);
+        used++;
+    }
+
+    int find(long high, long low) {
+        int mask = slots.length - 1;
+        for (int i = hash(high, low) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int row = slots[i] - 1;
+            if (store.idHigh(row) == high && store.idLow(row) == low && store.isLive(row)) return row;
+        }
+        return TaskStore.NO_ROW;
+    }
+
+    private void insert(int[] table, int row) {
+        int mask = table.length - 1;
+        int i = hash(store.idHigh(row), store.idLow(row)) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = row + 1;
+    }
+
+    // Rehash into a table twice the size, dropping removed rows
+    private void grow() {
+        int[] bigger = new int[slots.length * 2];
+        used = 0;
+        for (int slot : slots) {
+            if (slot != 0 && store.isLive(slot - 1)) {
+                insert(bigger, slot - 1);
+                used++;
+            }
+        }
+        slots = bigger;
+    }
+
+    private static int hash(long high, long low) {
+        long h = high ^ low;
+        h ^= h >>> 32;
+        int x = (int) h * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+}
@@ -0,0 +1,465 @@
+package com.todo.store;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TaskStore outside the Java heap, for large archives that should cost neither heap nor GC time.
+ * The store file is its own copy of the tasks, not a cache of the database: TodoService
+ * neither reads nor updates it, so it holds what was loaded into it until it is reloaded.
+ *
+ * Every task is a fixed 56-byte struct in a row buffer (layout below). Names and categories
+ * live in a separate string arena as [int length][UTF-8 bytes]; rows hold arena offsets, and
+ * a category's offset doubles as its code because each category is stored once.
+ *
+ * The buffers are either direct memory ({@link #allocate}) or memory-mapped files
+ * ({@link #open}): {@code file} holds a header and the rows, {@code file + ".strings"} the
+ * arena. Opening an existing file maps it and reads the header, nothing more, so a warm start
+ * takes the same time for ten tasks or ten million; the id and category lookups are rebuilt
+ * on first use. {@link #force()} writes changes through to disk.
+ *
+ * Built on ByteBuffer: the Foreign Function and Memory API is still a preview feature on the
+ * project's JDK. The layout is plain offsets, so moving to MemorySegment later only swaps the
+ * accessors. A mapping is released when its buffer is garbage collected.
+ */
+public class OffHeapTaskStore implements TaskStore, AutoCloseable {
+
+    // Row file header
+    private static final int MAGIC = 0x54534B31; // "TSK1"
+    private static final int H_MAGIC = 0;
+    private static final int H_ROWS = 4;
+    private static final int H_LIVE = 8;
+    private static final int H_ARENA_USED = 12;
+    private static final int HEADER_BYTES = 64;
+
+    // Row struct
+    private static final int ID_HIGH = 0;       // long
+    private static final int ID_LOW = 8;        // long
+    private static final int NAME = 16;         // int arena offset, -1 = null
+    private static final int CATEGORY = 20;     // int arena offset, -1 = null
+    private static final int DEADLINE = 24;     // int epoch day or NO_DEADLINE
+    private static final int MOMENTUM = 28;     // int
+    private static final int PARENT = 32;       // int row
+    private static final int FIRST_CHILD = 36;  // int row
+    private static final int LAST_CHILD = 40;   // int row
+    private static final int NEXT_SIBLING = 44; // int row
+    private static final int TOUCHED = 48;      // int epoch minute, 0 = never
+    private static final int PRIORITY = 52;     // byte ordinal
+    private static final int STATUS = 53;       // byte ordinal
+    private static final int DIRTY = 54;        // byte Task.Field bits
+    private static final int FLAGS = 55;        // byte
+    private static final int ROW_BYTES = 56;
+
+    private static final byte REMOVED = 1;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MOMENTUM_BIT = Task.Field.MOMENTUM.bit();
+    private static final int PRIORITY_BIT = Task.Field.PRIORITY.bit();
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Region rows;
+    private final Region arena;
+    private int rowCount;
+    private int live;
+    private int arenaUsed;
+
+    // Rebuilt on first use after opening a file
+    private IdTable ids;
+    private Map<String, Integer> categoryOffsets;
+
+    private OffHeapTaskStore(Region rows, Region arena) {
+        this.rows = rows;
+        this.arena = arena;
+        ByteBuffer header = rows.buf;
+        if (header.getInt(H_MAGIC) == MAGIC) {
+            rowCount = header.getInt(H_ROWS);
+            live = header.getInt(H_LIVE);
+            arenaUsed = header.getInt(H_ARENA_USED);
+        } else {
+            header.putInt(H_MAGIC, MAGIC);
+            writeHeader();
+        }
+    }
+
+    /**
+     * A store in direct memory, sized for {@code capacity} tasks to start with.
+     */
+    public static OffHeapTaskStore allocate(int capacity) {
+        return new OffHeapTaskStore(new Region(null, HEADER_BYTES + (long) Math.max(16, capacity) * ROW_BYTES),
+                new Region(null, Math.max(16, capacity) * 16L));
+    }
+
+    /**
+     * Map a store file, creating it if it does not exist yet.
+     */
+    public static OffHeapTaskStore open(Path file) throws IOException {
+        Path strings = Paths.get(file + ".strings");
+        FileChannel rowChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel arenaChannel = FileChannel.open(strings, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long rowBytes = Math.max(rowChannel.size(), HEADER_BYTES + 1024L * ROW_BYTES);
+        long arenaBytes = Math.max(arenaChannel.size(), 16 * 1024L);
+        return new OffHeapTaskStore(new Region(rowChannel, rowBytes), new Region(arenaChannel, arenaBytes));
+    }
+
+    /**
+     * Write changes of a file-backed store through to disk; no-op for direct memory.
+     */
+    public void force() {
+        writeHeader();
+        rows.force();
+        arena.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        rows.close();
+        arena.close();
+    }
+
+    // ---- TaskStore ----
+
+    @Override
+    public int rowCount() { return rowCount; }
+
+    @Override
+    public int size() { return live; }
+
+    @Override
+    public boolean isLive(int row) {
+        return row >= 0 && row < rowCount && (rows.buf.get(at(row) + FLAGS) & REMOVED) == 0;
+    }
+
+    @Override
+    public int add(String id, String name, String category, LocalDate deadline, Priority priority, Status status, int momentum) {
+        IdTable table = ids(); // build before the new row exists, so it is added exactly once
+        rows.ensure(HEADER_BYTES + (long) (rowCount + 1) * ROW_BYTES);
+        int row = rowCount++;
+        int base = at(row);
+        ByteBuffer b = rows.buf;
+        b.putLong(base + ID_HIGH, IdTable.high(id));
+        b.putLong(base + ID_LOW, IdTable.low(id));
+        b.putInt(base + NAME, putString(name));
+        b.putInt(base + CATEGORY, codeOf(category));
+        b.putInt(base + DEADLINE, deadline == null ? NO_DEADLINE : (int) deadline.toEpochDay());
+        b.putInt(base + MOMENTUM, momentum);
+        b.putInt(base + PARENT, NO_ROW);
+        b.putInt(base + FIRST_CHILD, NO_ROW);
+        b.putInt(base + LAST_CHILD, NO_ROW);
+        b.putInt(base + NEXT_SIBLING, NO_ROW);
+        b.putInt(base + TOUCHED, 0);
+        b.put(base + PRIORITY, (byte) priority.ordinal());
+        b.put(base + STATUS, (byte) status.ordinal());
+        b.put(base + DIRTY, (byte) 0);
+        b.put(base + FLAGS, (byte) 0);
+        live++;
+        writeHeader();
+        table.put(row);
+        return row;
+    }
+
+    @Override
+    public void linkSubtask(int parentRow, int row) {
+        if (parent(row) != NO_ROW) throw new IllegalArgumentException("Row " + row + " already has a parent");
+        setInt(row, PARENT, parentRow);
+        int last = getInt(parentRow, LAST_CHILD);
+        if (last == NO_ROW) {
+            setInt(parentRow, FIRST_CHILD, row);
+        } else {
+            setInt(last, NEXT_SIBLING, row);
+        }
+        setInt(parentRow, LAST_CHILD, row);
+    }
+
+    @Override
+    public void remove(int row) {
+        if (!isLive(row)) return;
+        int p = parent(row);
+        if (p != NO_ROW) {
+            int prev = NO_ROW;
+            for (int c = firstSubtask(p); c != row; c = nextSibling(c)) prev = c;
+            int next = nextSibling(row);
+            if (prev == NO_ROW) setInt(p, FIRST_CHILD, next); else setInt(prev, NEXT_SIBLING, next);
+            if (getInt(p, LAST_CHILD) == row) setInt(p, LAST_CHILD, prev);
+        }
+        markRemoved(row);
+        writeHeader();
+    }
+
+    private void markRemoved(int row) {
+        int flagsAt = at(row) + FLAGS;
+        rows.buf.put(flagsAt, (byte) (rows.buf.get(flagsAt) | REMOVED));
+        live--;
+        for (int c = firstSubtask(row); c != NO_ROW; c = nextSibling(c)) {
+            markRemoved(c);
+        }
+    }
+
+    @Override
+    public int find(String id) {
+        return ids().find(IdTable.high(id), IdTable.low(id));
+    }
+
+    @Override public long idHigh(int row) { return rows.buf.getLong(at(row) + ID_HIGH); }
+    @Override public long idLow(int row) { return rows.buf.getLong(at(row) + ID_LOW); }
+    @Override public String id(int row) { return IdTable.format(idHigh(row), idLow(row)); }
+    @Override public String name(int row) { return getString(getInt(row, NAME)); }
+    @Override public String category(int row) { return getString(getInt(row, CATEGORY)); }
+    @Override public int categoryCode(int row) { return getInt(row, CATEGORY); }
+    @Override public int deadlineEpochDay(int row) { return getInt(row, DEADLINE); }
+    @Override public Priority priority(int row) { return PRIORITIES[rows.buf.get(at(row) + PRIORITY)]; }
+    @Override public Status status(int row) { return STATUSES[rows.buf.get(at(row) + STATUS)]; }
+    @Override public int momentum(int row) { return getInt(row, MOMENTUM); }
+    @Override public int parent(int row) { return getInt(row, PARENT); }
+    @Override public int firstSubtask(int row) { return getInt(row, FIRST_CHILD); }
+    @Override public int nextSibling(int row) { return getInt(row, NEXT_SIBLING); }
+
+    @Override
+    public void setName(int row, String name) {
+        if (!Objects.equals(name(row), name)) {
+            setInt(row, NAME, putString(name));
+            markDirty(row, Task.Field.NAME.bit());
+        }
+    }
+
+    @Override
+    public void setCategory(int row, String category) {
+        int code = codeOf(category);
+        if (getInt(row, CATEGORY) != code) {
+            setInt(row, CATEGORY, code);
+            markDirty(row, Task.Field.CATEGORY.bit());
+        }
+    }
+
+    @Override
+    public void setDeadline(int row, LocalDate deadline) {
+        int day = deadline == null ? NO_DEADLINE : (int) deadline.toEpochDay();
+        if (getInt(row, DEADLINE) != day) {
+            setInt(row, DEADLINE, day);
+            markDirty(row, Task.Field.DEADLINE.bit());
+        }
+    }
+
+    @Override
+    public void setPriority(int row, Priority priority) {
+        if (rows.buf.get(at(row) + PRIORITY) != priority.ordinal()) {
+            rows.buf.put(at(row) + PRIORITY, (byte) priority.ordinal());
+            markDirty(row, PRIORITY_BIT);
+        }
+    }
+
+    @Override
+    public void setStatus(int row, Status status) {
+        if (rows.buf.get(at(row) + STATUS) != status.ordinal()) {
+            rows.buf.put(at(row) + STATUS, (byte) status.ordinal());
+            markDirty(row, Task.Field.STATUS.bit());
+        }
+    }
+
+    @Override
+    public void setMomentum(int row, int momentum) {
+        if (getInt(row, MOMENTUM) != momentum) {
+            setInt(row, MOMENTUM, momentum);
+            markDirty(row, MOMENTUM_BIT);
+        }
+    }
+
+    @Override public int dirtyMask(int row) { return rows.buf.get(at(row) + DIRTY); }
+
+    @Override
+    public void markDirty(int row, int fields) {
+        int dirtyAt = at(row) + DIRTY;
+        rows.buf.put(dirtyAt, (byte) (rows.buf.get(dirtyAt) | fields));
+    }
+
+    @Override public void markClean(int row) { rows.buf.put(at(row) + DIRTY, (byte) 0); }
+
+    @Override
+    public void touch(int row, LocalDateTime when) {
+        setInt(row, TOUCHED, TaskStore.epochMinute(when));
+    }
+
+    @Override
+    public int applyDecay(LocalDateTime now, int dailyDecay, int threeDayDecay, int weeklyDecay) {
+        int nowMinute = TaskStore.epochMinute(now);
+        ByteBuffer b = rows.buf;
+        int changed = 0;
+        for (int i = 0, base = HEADER_BYTES; i < rowCount; i++, base += ROW_BYTES) {
+            int last = b.getInt(base + TOUCHED);
+            int age = nowMinute - last;
+            int decay = age >= 7 * MINUTES_PER_DAY ? weeklyDecay
+                    : age >= 3 * MINUTES_PER_DAY ? threeDayDecay
+                    : age >= MINUTES_PER_DAY ? dailyDecay : 0;
+            boolean skip = last == 0 || (b.get(base + FLAGS) & REMOVED) != 0;
+            int m = b.getInt(base + MOMENTUM);
+            int next = skip || decay == 0 ? m : Math.max(0, m - decay);
+            if (last == 0) b.putInt(base + TOUCHED, nowMinute);
+            if (next != m) {
+                b.putInt(base + MOMENTUM, next);
+                b.put(base + DIRTY, (byte) (b.get(base + DIRTY) | MOMENTUM_BIT));
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public int promoteByDeadline(LocalDate today) {
+        int day = (int) today.toEpochDay();
+        int critical = Priority.CRITICAL.ordinal();
+        int high = Priority.HIGH.ordinal();
+        int medium = Priority.MEDIUM.ordinal();
+        ByteBuffer b = rows.buf;
+        int promoted = 0;
+        for (int i = 0, base = HEADER_BYTES; i < rowCount; i++, base += ROW_BYTES) {
+            int d = b.getInt(base + DEADLINE);
+            if (d == NO_DEADLINE || (b.get(base + FLAGS) & REMOVED) != 0) continue;
+            int p = b.get(base + PRIORITY);
+            // Overdue: critical; due within a day: at least high; within three: at least medium
+            long left = (long) d - day;
+            int next = Math.max(p, left < 0 ? critical : left <= 1 ? high : left <= 3 ? medium : 0);
+            if (next != p) {
+                b.put(base + PRIORITY, (byte) next);
+                b.put(base + DIRTY, (byte) (b.get(base + DIRTY) | PRIORITY_BIT));
+                promoted++;
+            }
+        }
+        return promoted;
+    }
+
+    // ---- internals ----
+
+    private static int at(int row) {
+        return HEADER_BYTES + row * ROW_BYTES;
+    }
+
+    private int getInt(int row, int field) {
+        return rows.buf.getInt(at(row) + field);
+    }
+
+    private void setInt(int row, int field, int value) {
+        rows.buf.putInt(at(row) + field, value);
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = rows.buf;
+        header.putInt(H_ROWS, rowCount);
+        header.putInt(H_LIVE, live);
+        header.putInt(H_ARENA_USED, arenaUsed);
+    }
+
+    private IdTable ids() {
+        if (ids == null) {
+            ids = new IdTable(this);
+            for (int row = 0; row < rowCount; row++) {
+                if (isLive(row)) ids.put(row);
+            }
+        }
+        return ids;
+    }
+
+    // Categories are stored once each, so their arena offset is their code
+    private int codeOf(String category) {
+        if (category == null) return -1;
+        if (categoryOffsets == null) {
+            categoryOffsets = new HashMap<>();
+            for (int row = 0; row < rowCount; row++) {
+                int offset = getInt(row, CATEGORY);
+                if (offset >= 0) categoryOffsets.putIfAbsent(getString(offset), offset);
+            }
+        }
+        Integer offset = categoryOffsets.get(category);
+        if (offset == null) {
+            offset = putString(category);
+            categoryOffsets.put(category, offset);
+        }
+        return offset;
+    }
+
+    private int putString(String value) {
+        if (value == null) return -1;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = arenaUsed;
+        arena.ensure((long) offset + 4 + bytes.length);
+        arena.buf.putInt(offset, bytes.length);
+        arena.buf.put(offset + 4, bytes, 0, bytes.length);
+        arenaUsed = offset + 4 + bytes.length;
+        writeHeader();
+        return offset;
+    }
+
+    private String getString(int offset) {
+        if (offset < 0) return null;
+        int length = arena.buf.getInt(offset);
+        byte[] bytes = new byte[length];
+        arena.buf.get(offset + 4, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A growable buffer: direct memory, or a read-write mapping of a file that is remapped
+     * (and the file extended) when it has to grow.
+     */
+    private static final class Region {
+        final FileChannel channel;
+        ByteBuffer buf;
+
+        Region(FileChannel channel, long bytes) {
+            this.channel = channel;
+            this.buf = create(bytes, null);
+        }
+
+        void ensure(long bytes) {
+            if (bytes <= buf.capacity()) return;
+            long grown = Math.max(bytes, (long) buf.capacity() * 2);
+            if (grown > Integer.MAX_VALUE) {
+                grown = Integer.MAX_VALUE;
+                if (bytes > grown) throw new IllegalStateException("Task store is full (2 GB per buffer)");
+            }
+            buf = create(grown, buf);
+        }
+
+        private ByteBuffer create(long bytes, ByteBuffer old) {
+            if (channel != null) {
+                try {
+                    // Mapping past the end extends the file; the old contents are already in it
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                    return mapped.order(ByteOrder.nativeOrder());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            ByteBuffer direct = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+            if (old != null) {
+                direct.put(old.duplicate().clear());
+                direct.clear();
+            }
+            return direct;
+        }
+
+        void force() {
+            if (buf instanceof MappedByteBuffer) ((MappedByteBuffer) buf).force();
+        }
+
+        void close() throws IOException {
+            if (channel != null) channel.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.todo.store;
+
+import com.todo.ds.Node;
+import com.todo.ds.NodeList;
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact copy of a large task set for analytics and archives: tasks live in rows of
+ * primitive columns instead of one Task object (plus Strings, LocalDate and a subtask list)
+ * each. A task is addressed by its row number; {@link TaskView} reads a row through the
+ * familiar getters without copying it, and {@link #toTask} turns a subtree back into Task
+ * objects for code that needs them.
+ *
+ * A store stands on its own. TodoService, the GUI, LiveQuery, search and the write-behind
+ * queue all work on Task objects and never read a store, and nothing writes store rows back
+ * to the database. Fill one with DatabaseManager.loadAllTasks(store) or {@link #addTree},
+ * run scans over it (applyDecay, promoteByDeadline, counts through a TaskView), and make
+ * lasting changes through TodoService.
+ *
+ * - ids are UUIDs, kept as two longs; {@link #find} looks them up without boxing
+ * - deadlines are epoch days ({@link #NO_DEADLINE} for none), priority and status ordinals
+ * - subtasks are linked by row: parent, first subtask, next sibling
+ * - dirty bits use Task.Field and record which columns a scan changed, for a caller that
+ *   wants to apply those changes elsewhere; the store itself never saves them
+ * - removed rows keep their number (row numbers are stable) but no longer count as live
+ *
+ * Stores are not thread-safe; guard them like the task lists.
+ */
+public interface TaskStore {
+
+    int NO_ROW = -1;
+    int NO_DEADLINE = Integer.MIN_VALUE;
+    int ALL_FIELDS = (1 << Task.Field.values().length) - 1;
+
+    /** Rows ever added, removed ones included: scans run over 0 .. rowCount() - 1. */
+    int rowCount();
+
+    /** Live tasks. */
+    int size();
+
+    boolean isLive(int row);
+
+    /**
+     * Append a task as a new top-level row. {@code id} must be a UUID string.
+     */
+    int add(String id, String name, String category, LocalDate deadline, Priority priority, Status status, int momentum);
+
+    /**
+     * Append a copy of the task's own fields (not its subtasks). The row starts clean if the
+     * task is persisted and clean, otherwise fully dirty.
+     */
+    default int add(Task task) {
+        int row = add(task.getId(), task.getName(), task.getCategory(), task.getDeadline(),
+                task.getPriority(), task.getStatus(), task.getMomentum());
+        if (task.needsSave()) {
+            markDirty(row, task.isPersisted() ? task.getDirtyMask() : ALL_FIELDS);
+        }
+        return row;
+    }
+
+    /**
+     * Copy a task and its whole subtree in; returns the task's row.
+     */
+    default int addTree(Task task) {
+        int row = add(task);
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (Node<Task> sub = subtasks.getHead(); sub != null; sub = subtasks.next(sub)) {
+            linkSubtask(row, addTree(sub.data));
+        }
+        return row;
+    }
+
+    /**
+     * Give back spare capacity, e.g. after a bulk load.
+     */
+    default void trimToSize() {}
+
+    /**
+     * Make a top-level row the last subtask of {@code parentRow}.
+     */
+    void linkSubtask(int parentRow, int row);
+
+    /**
+     * Remove a task and all of its subtasks.
+     */
+    void remove(int row);
+
+    /** Row of the live task with this id, or NO_ROW. */
+    int find(String id);
+
+    long idHigh(int row);
+    long idLow(int row);
+    String id(int row);
+    String name(int row);
+    String category(int row);
+    /** Small integer code for the category: equal codes mean equal categories. */
+    int categoryCode(int row);
+    int deadlineEpochDay(int row);
+    Priority priority(int row);
+    Status status(int row);
+    int momentum(int row);
+    int parent(int row);
+    int firstSubtask(int row);
+    int nextSibling(int row);
+
+    void setName(int row, String name);
+    void setCategory(int row, String category);
+    void setDeadline(int row, LocalDate deadline);
+    void setPriority(int row, Priority priority);
+    void setStatus(int row, Status status);
+    void setMomentum(int row, int momentum);
+
+    int dirtyMask(int row);
+    void markDirty(int row, int fields);
+    void markClean(int row);
+
+    /**
+     * Remember when the task was last interacted with (for {@link #applyDecay}).
+     */
+    void touch(int row, LocalDateTime when);
+
+    /**
+     * Time-based momentum decay over every live row, with the rules of MomentumTracker:
+     * rows never touched are stamped with {@code now}; otherwise momentum drops by the
+     * weekly, three-day or daily amount once that much time has passed, never below 0.
+     * Returns how many rows changed.
+     */
+    int applyDecay(LocalDateTime now, int dailyDecay, int threeDayDecay, int weeklyDecay);
+
+    /**
+     * Deadline-based promotion over every live row, with the rules of
+     * TodoService.autoPromotePriorities. Returns how many rows were promoted.
+     */
+    int promoteByDeadline(LocalDate today);
+
+    default LocalDate deadline(int row) {
+        int day = deadlineEpochDay(row);
+        return day == NO_DEADLINE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    default TaskView view(int row) {
+        return new TaskView(this).at(row);
+    }
+
+    /**
+     * Materialize a row and its subtree as Task objects. They come back clean, as if just
+     * loaded from the database, whether or not the rows are: the dirty bits stay with the
+     * rows, so saving these Tasks writes nothing until they are changed themselves.
+     */
+    default Task toTask(int row) {
+        Task task = new Task(id(row), name(row), category(row), deadline(row), priority(row), status(row), momentum(row));
+        int parent = parent(row);
+        task.setParentId(parent == NO_ROW ? null : id(parent));
+        task.markClean();
+        NodeList<Task> subtasks = task.getLoadedSubtasks();
+        for (int sub = firstSubtask(row); sub != NO_ROW; sub = nextSibling(sub)) {
+            subtasks.addLast(toTask(sub));
+        }
+        return task;
+    }
+
+    /** Minutes since the epoch (UTC), the resolution of {@link #touch}. */
+    static int epochMinute(LocalDateTime when) {
+        return (int) (when.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+}
@@ -0,0 +1,57 @@
+package com.todo.store;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Flyweight over one row of a TaskStore: the Task getters and setters, reading and writing
+ * the columns directly. Move it with {@link #at} instead of creating a view per row, e.g.
+ * {@code TaskView v = new TaskView(store); for (int r = ...) { v.at(r).getMomentum(); }}.
+ */
+public final class TaskView {
+
+    private final TaskStore store;
+    private int row = TaskStore.NO_ROW;
+
+    public TaskView(TaskStore store) {
+        this.store = store;
+    }
+
+    public TaskView at(int row) {
+        this.row = row;
+        return this;
+    }
+
+    public int row() { return row; }
+
+    public String getId() { return store.id(row); }
+    public String getName() { return store.name(row); }
+    public String getCategory() { return store.category(row); }
+    public LocalDate getDeadline() { return store.deadline(row); }
+    public Priority getPriority() { return store.priority(row); }
+    public Status getStatus() { return store.status(row); }
+    public int getMomentum() { return store.momentum(row); }
+
+    public String getParentId() {
+        int parent = store.parent(row);
+        return parent == TaskStore.NO_ROW ? null : store.id(parent);
+    }
+
+    public void setName(String name) { store.setName(row, name); }
+    public void setCategory(String category) { store.setCategory(row, category); }
+    public void setDeadline(LocalDate deadline) { store.setDeadline(row, deadline); }
+    public void setPriority(Priority priority) { store.setPriority(row, priority); }
+    public void setStatus(Status status) { store.setStatus(row, status); }
+    public void setMomentum(int momentum) { store.setMomentum(row, momentum); }
+
+    public int getDirtyMask() { return store.dirtyMask(row); }
+    public void markClean() { store.markClean(row); }
+
+    @Override
+    public String toString() {
+        return "[" + getId().substring(0, 6) + "] " + getName() + " | Cat:" + getCategory() + " | Due:" + getDeadline()
+                + " | Priority:" + getPriority() + " | Status:" + getStatus() + " | Momentum:" + getMomentum();
+    }
+}
@@ -0,0 +1,137 @@
+package com.todo.ui;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.service.TaskQuery;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Search and filter controls above the task list. Builds a TaskQuery from the fields and calls
+ * {@code onChange} when it changes; typing is debounced so a query runs once the user pauses.
+ */
+class FilterBar extends JPanel {
+
+    private static final int TYPING_DELAY_MS = 250;
+    private static final String ANY = "Any";
+    private static final String LIST_ORDER = "List order";
+
+    private final JTextField searchField = new JTextField(12);
+    private final JComboBox<Object> statusBox = new JComboBox<>(withAny(Status.values()));
+    private final JComboBox<Object> priorityBox = new JComboBox<>(withAny(Priority.values()));
+    private final JTextField categoryField = new JTextField(7);
+    private final JTextField dueFromField = new JTextField(7);
+    private final JTextField dueToField = new JTextField(7);
+    private final JSpinner minMomentum = new JSpinner(new SpinnerNumberModel(0, 0, 10_000, 10));
+    private final JComboBox<Object> sortBox = new JComboBox<>(withFirst(LIST_ORDER, TaskQuery.SortField.values()));
+    private final JCheckBox descendingBox = new JCheckBox("Desc", true);
+
+    FilterBar(Runnable onChange) {
+        super(new GridLayout(2, 1));
+        JPanel what = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 2));
+        what.add(new JLabel("Search:"));
+        what.add(searchField);
+        what.add(statusBox);
+        what.add(priorityBox);
+        what.add(new JLabel("Category:"));
+        what.add(categoryField);
+        JPanel range = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 2));
+        range.add(new JLabel("Due:"));
+        range.add(dueFromField);
+        range.add(new JLabel("–"));
+        range.add(dueToField);
+        range.add(new JLabel("Momentum ≥"));
+        range.add(minMomentum);
+        range.add(new JLabel("Sort:"));
+        range.add(sortBox);
+        range.add(descendingBox);
+        add(what);
+        add(range);
+        dueFromField.setToolTipText("YYYY-MM-DD");
+        dueToField.setToolTipText("YYYY-MM-DD");
+
+        Timer typing = new Timer(TYPING_DELAY_MS, e -> onChange.run());
+        typing.setRepeats(false);
+        DocumentListener restart = new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { typing.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { typing.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { typing.restart(); }
+        };
+        for (JTextField field : new JTextField[]{searchField, categoryField, dueFromField, dueToField}) {
+            field.getDocument().addDocumentListener(restart);
+        }
+        statusBox.addActionListener(e -> onChange.run());
+        priorityBox.addActionListener(e -> onChange.run());
+        sortBox.addActionListener(e -> onChange.run());
+        descendingBox.addActionListener(e -> onChange.run());
+        minMomentum.addChangeListener(e -> typing.restart());
+    }
+
+    /**
+     * True when nothing filters and the order is the list's own: show the plain task list.
+     */
+    boolean isInactive() {
+        return searchField.getText().isBlank() && statusBox.getSelectedItem() == ANY
+                && priorityBox.getSelectedItem() == ANY && categoryField.getText().isBlank()
+                && date(dueFromField) == null && date(dueToField) == null
+                && (Integer) minMomentum.getValue() == 0 && sortBox.getSelectedItem() == LIST_ORDER;
+    }
+
+    TaskQuery query() {
+        TaskQuery query = TaskQuery.ALL.withText(searchField.getText());
+        if (statusBox.getSelectedItem() instanceof Status) {
+            query = query.withStatus((Status) statusBox.getSelectedItem());
+        }
+        if (priorityBox.getSelectedItem() instanceof Priority) {
+            query = query.withPriority((Priority) priorityBox.getSelectedItem());
+        }
+        if (!categoryField.getText().isBlank()) {
+            query = query.withCategory(categoryField.getText().trim());
+        }
+        LocalDate from = date(dueFromField);
+        LocalDate to = date(dueToField);
+        if (from != null || to != null) {
+            query = query.withDeadlineBetween(from, to);
+        }
+        int min = (Integer) minMomentum.getValue();
+        if (min > 0) {
+            query = query.withMomentumBetween(min, Integer.MAX_VALUE);
+        }
+        // "List order" with a filter shows the matches by momentum, like the list itself
+        Object sort = sortBox.getSelectedItem();
+        return sort instanceof TaskQuery.SortField
+                ? query.sortedBy((TaskQuery.SortField) sort, descendingBox.isSelected())
+                : query.sortedBy(TaskQuery.SortField.MOMENTUM, true);
+    }
+
+    // A date that does not parse is ignored (and shown in red) until it does
+    private static LocalDate date(JTextField field) {
+        String text = field.getText().trim();
+        LocalDate date = null;
+        if (!text.isEmpty()) {
+            try {
+                date = LocalDate.parse(text);
+            } catch (DateTimeParseException e) {
+                // stays null
+            }
+        }
+        field.setForeground(text.isEmpty() || date != null ? Color.BLACK : Color.RED);
+        return date;
+    }
+
+    private static Object[] withAny(Object[] values) {
+        return withFirst(ANY, values);
+    }
+
+    private static Object[] withFirst(Object first, Object[] values) {
+        Object[] all = new Object[values.length + 1];
+        all[0] = first;
+        System.arraycopy(values, 0, all, 1, values.length);
+        return all;
+    }
+}
@@ -0,0 +1,87 @@
+package com.todo.ui;
+
+import com.todo.model.Task;
+import com.todo.service.LiveQuery;
+
+import javax.swing.AbstractListModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The rows of a filtered or sorted task list: a LiveQuery's result, flat, subtasks indented.
+ *
+ * Rows are made lazily. The result itself is just task references; a TaskUIItem (with the
+ * renderer's cached meta line) is only created when the JList asks for that row, which with a
+ * prototype cell value is only for the rows on screen. The items of recently shown rows are
+ * kept, up to {@link #CACHED_ROWS}, so scrolling back and forth does not rebuild them.
+ * A change to the result fires an event for just the row it touched.
+ */
+class QueryListModel extends AbstractListModel<TaskUIItem> implements LiveQuery.Listener {
+
+    // A few screens' worth
+    static final int CACHED_ROWS = 512;
+
+    private final LiveQuery query;
+    private final Map<Task, TaskUIItem> items = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Task, TaskUIItem> eldest) {
+            return size() > CACHED_ROWS;
+        }
+    };
+    private int size;
+
+    QueryListModel(LiveQuery query) {
+        this.query = query;
+        this.size = query.size();
+        query.setListener(this);
+    }
+
+    LiveQuery getQuery() {
+        return query;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public TaskUIItem getElementAt(int index) {
+        Task task = query.get(index);
+        TaskUIItem item = items.get(task);
+        if (item == null) {
+            item = new TaskUIItem(task, task.getParentId() != null);
+            items.put(task, item);
+        }
+        return item;
+    }
+
+    // ---- LiveQuery.Listener ----
+
+    @Override
+    public void inserted(int index) {
+        size++;
+        fireIntervalAdded(this, index, index);
+    }
+
+    @Override
+    public void removed(int index) {
+        size--;
+        fireIntervalRemoved(this, index, index);
+    }
+
+    @Override
+    public void changed(int index) {
+        fireContentsChanged(this, index, index);
+    }
+
+    @Override
+    public void reset() {
+        int oldSize = size;
+        size = query.size();
+        items.clear();
+        if (size < oldSize) fireIntervalRemoved(this, size, oldSize - 1);
+        if (size > oldSize) fireIntervalAdded(this, oldSize, size - 1);
+        if (Math.min(oldSize, size) > 0) fireContentsChanged(this, 0, Math.min(oldSize, size) - 1);
+    }
+}
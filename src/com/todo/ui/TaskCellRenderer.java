@@ -0,0 +1,175 @@
+package com.todo.ui;
+
+import com.todo.model.Priority;
+import com.todo.model.Status;
+import com.todo.model.Task;
+
+import javax.swing.*;
+import javax.swing.border.AbstractBorder;
+import java.awt.*;
+import java.awt.font.TextAttribute;
+import java.util.Map;
+
+/**
+ * Card-style cell for a task row.
+ *
+ * JList calls this for every visible cell on every repaint, so it allocates next to nothing:
+ * colors and fonts are built once, the momentum bar labels come from a table, and each row keeps
+ * its meta line until priority, category or deadline change. The card border is a single
+ * object that reads the row being rendered; swapping borders per row would make setBorder
+ * compare (and allocate) insets every time. TodoBenchmarks.uiRenderCell with -prof gc reports
+ * the bytes allocated per screenful of cells.
+ */
+public class TaskCellRenderer extends JPanel implements ListCellRenderer<TaskUIItem> {
+
+    private static final Color SELECTED_BACKGROUND = new Color(230, 240, 255);
+    private static final Color SEPARATOR = new Color(240, 240, 240);
+    private static final Color COMPLETED_STATUS = new Color(100, 180, 100);
+    private static final Color MOMENTUM_BACKGROUND = new Color(230, 230, 230);
+    private static final Color MOMENTUM_HOT = new Color(255, 80, 80);
+    private static final Color MOMENTUM_WARM = new Color(255, 165, 0);
+    private static final Color MOMENTUM_COOL = new Color(100, 180, 255);
+
+    // By Priority ordinal: LOW, MEDIUM, HIGH, CRITICAL
+    private static final Color[] PRIORITY_COLORS = {
+            new Color(100, 200, 120), new Color(255, 180, 50), new Color(255, 80, 80), Color.LIGHT_GRAY
+    };
+    private static final int TOP_LEVEL_INSET = 10;
+    private static final int SUBTASK_INSET = 40;
+
+    private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Font TITLE_FONT_COMPLETED =
+            TITLE_FONT.deriveFont(Map.of(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON));
+
+    // Momentum bar labels for 0..MAX_CACHED_MOMENTUM; anything else is built on the fly
+    private static final int MAX_CACHED_MOMENTUM = 255;
+    private static final String[] MOMENTUM_LABELS = new String[MAX_CACHED_MOMENTUM + 1];
+
+    static {
+        for (int m = 0; m <= MAX_CACHED_MOMENTUM; m++) {
+            MOMENTUM_LABELS[m] = momentumLabel(m);
+        }
+    }
+
+    private final JLabel titleLabel = new JLabel();
+    private final JLabel metaLabel = new JLabel();
+    private final JLabel statusLabel = new JLabel();
+    private final JProgressBar momentumBar = new JProgressBar(0, 100);
+
+    // What the card border draws for the current row
+    private int leftInset = TOP_LEVEL_INSET;
+    private Color stripeColor = PRIORITY_COLORS[0];
+
+    public TaskCellRenderer() {
+        setLayout(new BorderLayout(10, 5));
+        setBorder(new CardBorder());
+        setBackground(Color.WHITE);
+
+        JPanel centerPanel = new JPanel(new GridLayout(2, 1));
+        centerPanel.setOpaque(false);
+        titleLabel.setFont(TITLE_FONT);
+        metaLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        metaLabel.setForeground(Color.GRAY);
+        centerPanel.add(titleLabel);
+        centerPanel.add(metaLabel);
+
+        JPanel rightPanel = new JPanel(new BorderLayout());
+        rightPanel.setOpaque(false);
+        statusLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+        statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 11));
+
+        momentumBar.setPreferredSize(new Dimension(90, 18));
+        momentumBar.setStringPainted(true);
+        momentumBar.setFont(new Font("Segoe UI Emoji", Font.BOLD, 11));
+        momentumBar.setBorderPainted(false);
+        momentumBar.setBackground(MOMENTUM_BACKGROUND);
+
+        rightPanel.add(statusLabel, BorderLayout.CENTER);
+        rightPanel.add(momentumBar, BorderLayout.SOUTH);
+
+        add(centerPanel, BorderLayout.CENTER);
+        add(rightPanel, BorderLayout.EAST);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends TaskUIItem> list, TaskUIItem value, int index, boolean isSelected, boolean cellHasFocus) {
+        Task task = value.task;
+
+        setBackground(isSelected ? SELECTED_BACKGROUND : Color.WHITE);
+        // Indentation and priority stripe
+        int inset = value.isSubtask ? SUBTASK_INSET : TOP_LEVEL_INSET;
+        if (inset != leftInset) {
+            leftInset = inset;
+            invalidate(); // the insets changed, lay the cell out again
+        }
+        stripeColor = PRIORITY_COLORS[task.getPriority().ordinal()];
+
+        // Text Data
+        titleLabel.setText(task.getName());
+        metaLabel.setText(metaText(value));
+
+        // Strikethrough if completed
+        boolean completed = task.getStatus() == Status.COMPLETED;
+        titleLabel.setFont(completed ? TITLE_FONT_COMPLETED : TITLE_FONT);
+        titleLabel.setForeground(completed ? Color.LIGHT_GRAY : Color.DARK_GRAY);
+
+        // Status Label
+        statusLabel.setText(task.getStatus().name());
+        statusLabel.setForeground(completed ? COMPLETED_STATUS : Color.GRAY);
+
+        // Momentum Bar
+        int m = task.getMomentum();
+        momentumBar.setValue(m);
+        momentumBar.setString(m >= 0 && m <= MAX_CACHED_MOMENTUM ? MOMENTUM_LABELS[m] : momentumLabel(m));
+
+        if (m >= 80) momentumBar.setForeground(MOMENTUM_HOT);
+        else if (m >= 50) momentumBar.setForeground(MOMENTUM_WARM);
+        else momentumBar.setForeground(MOMENTUM_COOL);
+
+        return this;
+    }
+
+    // "PRIORITY • category • deadline • id", rebuilt only when one of its parts changed
+    private static String metaText(TaskUIItem item) {
+        Task task = item.task;
+        if (item.meta == null || item.metaPriority != task.getPriority()
+                || item.metaCategory != task.getCategoryCode() || item.metaDeadline != task.getDeadline()) {
+            item.metaPriority = task.getPriority();
+            item.metaCategory = task.getCategoryCode();
+            item.metaDeadline = task.getDeadline();
+            item.meta = new StringBuilder(48)
+                    .append(item.metaPriority).append(" • ")
+                    .append(task.getCategory()).append(" • ")
+                    .append(item.metaDeadline).append(" • ")
+                    .append(task.getId(), 0, 6)
+                    .toString();
+        }
+        return item.meta;
+    }
+
+    // Bottom separator, then the indent, a 4px priority stripe and 10px before the content
+    private final class CardBorder extends AbstractBorder {
+        @Override
+        public Insets getBorderInsets(Component c, Insets insets) {
+            insets.set(5, leftInset + 4 + 10, 5 + 1, 10);
+            return insets;
+        }
+
+        @Override
+        public void paintBorder(Component c, Graphics g, int x, int y, int width, int height) {
+            g.setColor(SEPARATOR);
+            g.fillRect(x, y + height - 1, width, 1);
+            g.setColor(stripeColor);
+            g.fillRect(x + leftInset, y + 5, 4, height - 5 - 5 - 1);
+        }
+    }
+
+    private static String momentumLabel(int m) {
+        String icon;
+        if (m >= 90) icon = "🔥🔥🔥";
+        else if (m >= 60) icon = "🔥🔥";
+        else if (m >= 30) icon = "🔥";
+        else icon = "❄️";
+        return m + " " + icon;
+    }
+}
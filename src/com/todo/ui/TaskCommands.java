@@ -0,0 +1,187 @@
+package com.todo.ui;
+
+import com.todo.model.Task;
+import com.todo.service.BatchResult;
+import com.todo.service.TodoService;
+
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs TodoGUI's actions on a background thread, so the EDT never waits on the service:
+ * not on loading, lazy subtask reads, bulk passes over every task, or a full write queue.
+ *
+ * - One thread ("todo-commands") owns the TodoService. Commands run there one at a time,
+ *   in the order they were submitted, so the service needs no locking.
+ * - A command changes memory first and returns; the service persists through its write-behind
+ *   queue. The list follows as soon as memory has changed (see TaskListModel), before anything
+ *   reaches the database.
+ * - The progress bar shows the command running, then the writes still waiting to be saved.
+ * - When a background save fails, the service reconciles memory with what is actually stored
+ *   (as another command) and the messages say which tasks were reverted.
+ * - In LAZY mode {@link #loadNextPage} brings in further pages of top-level tasks with their
+ *   subtasks; the rows reach the model as add events.
+ *
+ * Everything here except the command bodies runs on the EDT.
+ */
+class TaskCommands {
+
+    // How often the progress bar looks at the write queue while changes are being saved
+    private static final int SAVE_POLL_MS = 100;
+
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "todo-commands");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final TaskListModel model;
+    private final JProgressBar progress;
+    private final Consumer<String> messages;
+    private final Timer savePoll;
+
+    // Set on the command thread by start(); every command runs after it
+    private volatile TodoService service;
+
+    private int running;
+    private int savingTotal;
+    // LAZY paging: set on the command thread, read on the EDT
+    private volatile boolean morePages;
+    private volatile boolean pageLoading;
+
+    TaskCommands(TaskListModel model, JProgressBar progress, Consumer<String> messages) {
+        this.model = model;
+        this.progress = progress;
+        this.messages = messages;
+        this.savePoll = new Timer(SAVE_POLL_MS, e -> showSaving());
+        progress.setStringPainted(true);
+        progress.setVisible(false);
+    }
+
+    /**
+     * Open the database and load the tasks off the EDT, then fill the model.
+     */
+    void start(Supplier<TodoService> factory) {
+        submit("Loading tasks", () -> {
+            TodoService created = factory.get();
+            // The first page came in with the service; the list shows it with its subtasks
+            for (Task t : created.getTasks()) {
+                t.getSubtasks();
+            }
+            created.addTaskListener(model.listenerFor(created, this::resync));
+            created.setPersistenceFailureListener(this::saveFailed);
+            service = created;
+            morePages = created.hasMorePages();
+            return TaskListModel.snapshot(created);
+        }, model::load);
+    }
+
+    /**
+     * LAZY mode: load the next page of top-level tasks and their subtasks, unless there are no
+     * more or a page is already on its way. Cheap to call on every scroll. {@code onLoaded}
+     * runs on the EDT once the page's rows are in the model, e.g. to check whether the list
+     * still ends inside the viewport.
+     */
+    void loadNextPage(Runnable onLoaded) {
+        if (!morePages || pageLoading) return;
+        pageLoading = true;
+        thread.execute(() -> {
+            try {
+                service.loadNextPage(true);
+                morePages = service.hasMorePages();
+            } catch (RuntimeException e) {
+                morePages = false;
+                SwingUtilities.invokeLater(() -> messages.accept("❌ Loading more tasks failed: " + e + "\n"));
+            } finally {
+                pageLoading = false;
+                // Queued behind the model's events for the page
+                SwingUtilities.invokeLater(onLoaded);
+            }
+        });
+    }
+
+    /**
+     * Run {@code command} against the service on the command thread and hand its result to
+     * {@code onDone} on the EDT. Failures are reported in the messages.
+     */
+    <T> void run(String activity, Function<TodoService, T> command, Consumer<T> onDone) {
+        submit(activity, () -> command.apply(service), onDone);
+    }
+
+    private interface Work<T> {
+        T call();
+    }
+
+    private <T> void submit(String activity, Work<T> work, Consumer<T> onDone) {
+        running++;
+        progress.setIndeterminate(true);
+        progress.setString(activity + "…");
+        progress.setVisible(true);
+        thread.execute(new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                running--;
+                try {
+                    onDone.accept(get());
+                } catch (ExecutionException e) {
+                    messages.accept("❌ " + activity + " failed: " + e.getCause() + "\n");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    showSaving();
+                }
+            }
+        });
+    }
+
+    // Called by the model when it lost track of the list: re-read everything on the command thread
+    private void resync() {
+        thread.execute(() -> {
+            List<TaskListModel.Block> all = TaskListModel.snapshot(service);
+            SwingUtilities.invokeLater(() -> model.load(all));
+        });
+    }
+
+    // Runs on the write-behind thread
+    private void saveFailed(BatchResult result) {
+        SwingUtilities.invokeLater(() -> {
+            messages.accept("❌ Some changes could not be saved: " + result + "\n");
+            run("Reverting unsaved changes", s -> s.reconcile(result), reverted -> {
+                if (reverted > 0) messages.accept("↩️ Reverted " + reverted + " task(s) to their saved state.\n");
+            });
+        });
+    }
+
+    // Between commands the bar counts down the writes still queued, then hides
+    private void showSaving() {
+        if (running > 0) return;
+        int pending = service == null ? 0 : service.pendingWrites();
+        if (pending == 0) {
+            savingTotal = 0;
+            savePoll.stop();
+            progress.setVisible(false);
+            return;
+        }
+        savingTotal = Math.max(savingTotal, pending);
+        progress.setIndeterminate(false);
+        progress.setMaximum(savingTotal);
+        progress.setValue(savingTotal - pending);
+        progress.setString("Saving " + pending + " change(s)…");
+        progress.setVisible(true);
+        savePoll.start();
+    }
+}
@@ -0,0 +1,290 @@
+package com.todo.ui;
+
+import com.todo.ds.Node;
+import com.todo.model.Task;
+import com.todo.service.TaskListener;
+import com.todo.service.TodoService;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows TodoGUI shows (every top-level task followed by its subtasks), kept up to date from
+ * the service's TaskListener events instead of being rebuilt after every action. Each change
+ * fires events for just the rows it touched: one added, removed or changed interval, or a
+ * removed and an added one when a top-level task moves in momentum order. Only bulk
+ * operations (decay, auto promotion) re-read everything, and even they fire at most two events.
+ *
+ * The service lives on TaskCommands' thread, so the model never reads it. The listener from
+ * {@link #listenerFor} runs there, takes down what the model will need (a top-level task's list
+ * predecessor and subtasks, or every task after a bulk change) and replays the event on the
+ * EDT. Events arrive in the order they happened, so each one finds the rows as they were
+ * when it fired. If the model still finds itself out of step it asks for a full snapshot.
+ *
+ * In LAZY mode the model shows what is in memory: subtasks appear as the service loads them
+ * and disappear when it unloads them (both announced as events), and further pages of
+ * top-level tasks arrive as TaskCommands loads them.
+ *
+ * Rows know their own index, renumbered lazily from the first row a change shifted, so finding
+ * a task's row is a map lookup.
+ */
+class TaskListModel extends AbstractListModel<TaskUIItem> {
+
+    private final List<TaskUIItem> rows = new ArrayList<>();
+    private final Map<Task, TaskUIItem> itemsByTask = new IdentityHashMap<>();
+    private int numberedUpTo;
+    // Asks the service's thread for a snapshot; set with the listener
+    private Runnable resync = () -> { };
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public TaskUIItem getElementAt(int index) {
+        return rows.get(index);
+    }
+
+    /**
+     * The listener to register with the service, on the thread that owns the service.
+     * {@code resync} must (eventually, on that thread) hand {@link #snapshot} to {@link #load}.
+     */
+    TaskListener listenerFor(TodoService service, Runnable resync) {
+        this.resync = resync;
+        return new TaskListener() {
+            @Override
+            public void taskAdded(Task task, Task parent) {
+                Placement at = parent == null ? placementOf(service, task) : null;
+                SwingUtilities.invokeLater(() -> added(task, parent, at));
+            }
+
+            @Override
+            public void taskRemoved(Task task, Task parent) {
+                SwingUtilities.invokeLater(() -> removed(task, parent));
+            }
+
+            @Override
+            public void taskChanged(Task task, Task parent) {
+                Placement at = parent == null ? placementOf(service, task) : null;
+                List<Task> siblings = parent == null ? null : subtasksOf(parent);
+                SwingUtilities.invokeLater(() -> changed(task, parent, at, siblings));
+            }
+
+            @Override
+            public void tasksChanged() {
+                List<Block> all = snapshot(service);
+                SwingUtilities.invokeLater(() -> load(all));
+            }
+        };
+    }
+
+    // ---- taken on the service's thread ----
+
+    // A top-level task and its subtasks, as they were when the event fired
+    static final class Block {
+        final Task task;
+        final List<Task> subtasks;
+
+        Block(Task task, List<Task> subtasks) {
+            this.task = task;
+            this.subtasks = subtasks;
+        }
+    }
+
+    // Where a top-level task was in the list, and its subtasks
+    private static final class Placement {
+        final boolean linked;  // false if the task was not in the list at all
+        final Task prev;       // its list predecessor, null for the first task
+        final List<Task> subtasks;
+
+        Placement(boolean linked, Task prev, List<Task> subtasks) {
+            this.linked = linked;
+            this.prev = prev;
+            this.subtasks = subtasks;
+        }
+    }
+
+    static List<Block> snapshot(TodoService service) {
+        List<Block> all = new ArrayList<>();
+        for (Task t : service.getTasks()) {
+            all.add(new Block(t, subtasksOf(t)));
+        }
+        return all;
+    }
+
+    private static Placement placementOf(TodoService service, Task task) {
+        Node<Task> node = service.nodeOf(task);
+        if (node == null) return new Placement(false, null, List.of());
+        return new Placement(true, node.prev == null ? null : node.prev.data, subtasksOf(task));
+    }
+
+    // Only what is loaded: listeners must not call back into the service, and a lazy load here
+    // would bring back subtrees the service just unloaded. Loads announce their subtasks anyway.
+    private static List<Task> subtasksOf(Task task) {
+        List<Task> subtasks = new ArrayList<>();
+        for (Task st : task.getLoadedSubtasks()) {
+            subtasks.add(st);
+        }
+        return subtasks;
+    }
+
+    // ---- replayed on the EDT ----
+
+    private void added(Task task, Task parent, Placement placement) {
+        if (itemsByTask.containsKey(task)) return;
+        if (parent == null) {
+            int at = insertionRow(placement);
+            if (at < 0) {
+                resync.run();
+                return;
+            }
+            int count = insertBlock(at, task, placement.subtasks);
+            fireIntervalAdded(this, at, at + count - 1);
+            return;
+        }
+        TaskUIItem parentItem = itemsByTask.get(parent);
+        if (parentItem == null || parentItem.isSubtask) return; // only one level of subtasks is shown
+        int at = rowOf(parentItem) + 1 + parentItem.subtaskRows;
+        insertRow(at, new TaskUIItem(task, true));
+        parentItem.subtaskRows++;
+        fireIntervalAdded(this, at, at);
+    }
+
+    private void removed(Task task, Task parent) {
+        TaskUIItem item = itemsByTask.get(task);
+        if (item == null) return;
+        int at = rowOf(item);
+        int count = removeBlock(item);
+        if (item.isSubtask) {
+            TaskUIItem parentItem = itemsByTask.get(parent);
+            if (parentItem != null) parentItem.subtaskRows--;
+        }
+        fireIntervalRemoved(this, at, at + count - 1);
+    }
+
+    private void changed(Task task, Task parent, Placement placement, List<Task> siblings) {
+        TaskUIItem item = itemsByTask.get(task);
+        if (item == null) {
+            // A subtask the model does not have, e.g. one reloaded after its subtree was unloaded
+            TaskUIItem parentItem = parent == null ? null : itemsByTask.get(parent);
+            if (parentItem != null && !parentItem.isSubtask) refreshSubtasks(parentItem, siblings);
+            return;
+        }
+        int at = rowOf(item);
+        if (item.isSubtask || insertionRow(placement) == at) {
+            fireContentsChanged(this, at, at);
+            return;
+        }
+        // Moved in momentum order: take the block out and put it back at its new place
+        int count = removeBlock(item);
+        fireIntervalRemoved(this, at, at + count - 1);
+        int to = insertionRow(placement);
+        if (to < 0) {
+            resync.run();
+            return;
+        }
+        count = insertBlock(to, task, placement.subtasks);
+        fireIntervalAdded(this, to, to + count - 1);
+    }
+
+    /**
+     * Replace every row with a snapshot. Fires one changed interval plus the size difference,
+     * whatever changed.
+     */
+    void load(List<Block> all) {
+        int oldSize = rows.size();
+        rows.clear();
+        itemsByTask.clear();
+        for (Block block : all) {
+            insertBlock(rows.size(), block.task, block.subtasks);
+        }
+        numberedUpTo = 0;
+        int newSize = rows.size();
+        if (newSize < oldSize) fireIntervalRemoved(this, newSize, oldSize - 1);
+        if (newSize > oldSize) fireIntervalAdded(this, oldSize, newSize - 1);
+        if (Math.min(oldSize, newSize) > 0) fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+    }
+
+    // ---- rows ----
+
+    // Where a top-level task's block belongs: right after the block of its list predecessor.
+    // -1 if the model is out of step with the list.
+    private int insertionRow(Placement placement) {
+        if (!placement.linked) return -1;
+        if (placement.prev == null) return 0;
+        TaskUIItem prev = itemsByTask.get(placement.prev);
+        return prev == null ? -1 : rowOf(prev) + 1 + prev.subtaskRows;
+    }
+
+    // A top-level task and its subtasks, inserted at the given row; returns how many rows
+    private int insertBlock(int at, Task task, List<Task> subtasks) {
+        TaskUIItem item = new TaskUIItem(task, false);
+        List<TaskUIItem> block = new ArrayList<>(1 + subtasks.size());
+        block.add(item);
+        for (Task st : subtasks) {
+            block.add(new TaskUIItem(st, true));
+        }
+        item.subtaskRows = block.size() - 1;
+        insertRows(at, block);
+        return block.size();
+    }
+
+    // Removes a row and, for a top-level task, its subtask rows; returns how many rows
+    private int removeBlock(TaskUIItem item) {
+        int at = rowOf(item);
+        int count = item.isSubtask ? 1 : 1 + item.subtaskRows;
+        List<TaskUIItem> block = rows.subList(at, at + count);
+        for (TaskUIItem removed : block) {
+            itemsByTask.remove(removed.task);
+        }
+        block.clear();
+        numberedUpTo = Math.min(numberedUpTo, at);
+        return count;
+    }
+
+    // Replace a top-level task's subtask rows with its current subtasks
+    private void refreshSubtasks(TaskUIItem parentItem, List<Task> subtasks) {
+        int first = rowOf(parentItem) + 1;
+        int oldCount = parentItem.subtaskRows;
+        List<TaskUIItem> old = rows.subList(first, first + oldCount);
+        for (TaskUIItem removed : old) {
+            itemsByTask.remove(removed.task);
+        }
+        old.clear();
+        List<TaskUIItem> block = new ArrayList<>(subtasks.size());
+        for (Task st : subtasks) {
+            block.add(new TaskUIItem(st, true));
+        }
+        insertRows(first, block);
+        int newCount = block.size();
+        parentItem.subtaskRows = newCount;
+        if (newCount < oldCount) fireIntervalRemoved(this, first + newCount, first + oldCount - 1);
+        if (newCount > oldCount) fireIntervalAdded(this, first + oldCount, first + newCount - 1);
+        if (Math.min(oldCount, newCount) > 0) fireContentsChanged(this, first, first + Math.min(oldCount, newCount) - 1);
+    }
+
+    private void insertRow(int at, TaskUIItem item) {
+        insertRows(at, List.of(item));
+    }
+
+    // One shift of the rows behind, however many rows go in
+    private void insertRows(int at, List<TaskUIItem> items) {
+        rows.addAll(at, items);
+        for (TaskUIItem item : items) {
+            itemsByTask.put(item.task, item);
+        }
+        numberedUpTo = Math.min(numberedUpTo, at);
+    }
+
+    private int rowOf(TaskUIItem item) {
+        for (; numberedUpTo < rows.size(); numberedUpTo++) {
+            rows.get(numberedUpTo).index = numberedUpTo;
+        }
+        return item.index;
+    }
+}
@@ -0,0 +1,33 @@
+package com.todo.ui;
+
+import com.todo.model.Priority;
+import com.todo.model.Task;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the task list: a task, and whether it shows as a subtask (indented).
+ */
+public final class TaskUIItem {
+    final Task task;
+    final boolean isSubtask;
+
+    // Kept by TaskListModel: row number (valid below its numberedUpTo) and, for top-level
+    // rows, how many subtask rows follow
+    int index;
+    int subtaskRows;
+
+    // TaskCellRenderer's meta line, and the values it was built from
+    String meta;
+    Priority metaPriority;
+    int metaCategory;
+    LocalDate metaDeadline;
+
+    public TaskUIItem(Task task, boolean isSubtask) {
+        this.task = task;
+        this.isSubtask = isSubtask;
+    }
+
+    public Task getTask() { return task; }
+    public boolean isSubtask() { return isSubtask; }
+}
@@ -3,31 +3,40 @@ package com.todo.ui;
 import com.todo.model.Task;
 import com.todo.model.Priority;
 import com.todo.model.Status;
+import com.todo.service.LiveQuery;
+import com.todo.service.TaskQuery;
 import com.todo.service.TodoService;
-import com.todo.ds.DoublyLinkedList;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.font.TextAttribute;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 
 public class TodoGUI extends JFrame {
-    private TodoService service;
+    // In LAZY mode the next page is fetched once the last visible row is this close to the end
+    private static final int PAGE_PREFETCH_ROWS = 20;
+
+    // The service lives on the commands' thread; the GUI only talks to it through them
+    private TaskCommands commands;
     private JList<TaskUIItem> taskList;
-    private DefaultListModel<TaskUIItem> listModel;
+    private TaskListModel listModel;
+    // Shown instead of listModel while the filter bar filters or sorts
+    private QueryListModel queryModel;
+    private FilterBar filterBar;
+    private JProgressBar progressBar;
     private JButton addTaskBtn, deleteTaskBtn, undoDeleteBtn, addSubtaskBtn, updateStatusBtn, autoPromoteBtn, workOnTaskBtn, updateMomentumBtn, showInsightsBtn;
     private JTextArea messageArea;
 
     public TodoGUI() {
-        service = new TodoService();
         initializeUI();
+        commands.start(TodoService::new);
+        LiveQuery results = queryModel.getQuery();
+        commands.run("Preparing search", s -> {
+            s.addTaskListener(results.listenerFor(s, SwingUtilities::invokeLater));
+            return null;
+        }, done -> { });
     }
 
     private void initializeUI() {
@@ -36,13 +45,23 @@ public class TodoGUI extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        // Task list
-        listModel = new DefaultListModel<>();
+        // Task list: the model follows the service's change events, and with every cell the
+        // size of the prototype the list never has to measure all rows to lay itself out
+        listModel = new TaskListModel();
         taskList = new JList<>(listModel);
         taskList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         taskList.setCellRenderer(new TaskCellRenderer());
+        taskList.setPrototypeCellValue(new TaskUIItem(
+                new Task("Prototype task name", "Category", LocalDate.now(), Priority.MEDIUM), false));
         JScrollPane scrollPane = new JScrollPane(taskList);
-        add(scrollPane, BorderLayout.CENTER);
+        // Scrolling, resizing and rows arriving all change the viewport
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNearEnd());
+        queryModel = new QueryListModel(new LiveQuery());
+        filterBar = new FilterBar(this::applyFilter);
+        JPanel listPanel = new JPanel(new BorderLayout());
+        listPanel.add(filterBar, BorderLayout.NORTH);
+        listPanel.add(scrollPane, BorderLayout.CENTER);
+        add(listPanel, BorderLayout.CENTER);
 
         // Buttons panel
         JPanel buttonPanel = new JPanel();
@@ -68,7 +87,12 @@ public class TodoGUI extends JFrame {
         buttonPanel.add(updateMomentumBtn);
         buttonPanel.add(showInsightsBtn);
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        // Progress of the running command, then of the background save
+        progressBar = new JProgressBar();
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(progressBar, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         // Message area
         messageArea = new JTextArea();
@@ -77,6 +101,8 @@ public class TodoGUI extends JFrame {
         messageScrollPane.setPreferredSize(new Dimension(0, 100));
         add(messageScrollPane, BorderLayout.NORTH);
 
+        commands = new TaskCommands(listModel, progressBar, messageArea::append);
+
         // Action listeners
         addTaskBtn.addActionListener(new AddTaskListener());
         deleteTaskBtn.addActionListener(new DeleteTaskListener());
@@ -87,141 +113,28 @@ public class TodoGUI extends JFrame {
         workOnTaskBtn.addActionListener(new WorkOnTaskListener());
         updateMomentumBtn.addActionListener(new UpdateMomentumListener());
         showInsightsBtn.addActionListener(new ShowInsightsListener());
-
-        refreshTaskList();
-    }
-
-    private void refreshTaskList() {
-        listModel.clear();
-        service.getTasks().forEach(t -> {
-            listModel.addElement(new TaskUIItem(t, false));
-            t.getSubtasks().forEach(st -> listModel.addElement(new TaskUIItem(st, true)));
-        });
     }
 
-    private static class TaskUIItem {
-        private final Task task;
-        private final boolean isSubtask;
-
-        public TaskUIItem(Task task, boolean isSubtask) {
-            this.task = task;
-            this.isSubtask = isSubtask;
+    // LAZY mode: page in more top-level tasks while the plain list is scrolled near its end
+    private void loadMoreIfNearEnd() {
+        if (commands == null || taskList.getModel() != listModel) return;
+        if (taskList.getLastVisibleIndex() >= listModel.getSize() - PAGE_PREFETCH_ROWS) {
+            commands.loadNextPage(this::loadMoreIfNearEnd);
         }
     }
 
-    private class TaskCellRenderer extends JPanel implements ListCellRenderer<TaskUIItem> {
-        private JLabel titleLabel = new JLabel();
-        private JLabel metaLabel = new JLabel();
-        private JLabel statusLabel = new JLabel();
-        private JProgressBar momentumBar = new JProgressBar(0, 100);
-
-        public TaskCellRenderer() {
-            setLayout(new BorderLayout(10, 5));
-            setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-            setBackground(Color.WHITE);
-
-            JPanel centerPanel = new JPanel(new GridLayout(2, 1));
-            centerPanel.setOpaque(false);
-            titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            metaLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            metaLabel.setForeground(Color.GRAY);
-            centerPanel.add(titleLabel);
-            centerPanel.add(metaLabel);
-
-            JPanel rightPanel = new JPanel(new BorderLayout());
-            rightPanel.setOpaque(false);
-            statusLabel.setHorizontalAlignment(SwingConstants.RIGHT);
-            statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 11));
-
-            momentumBar.setPreferredSize(new Dimension(90, 18));
-            momentumBar.setStringPainted(true);
-            momentumBar.setFont(new Font("Segoe UI Emoji", Font.BOLD, 11));
-            momentumBar.setBorderPainted(false);
-            momentumBar.setBackground(new Color(230, 230, 230));
-
-            rightPanel.add(statusLabel, BorderLayout.CENTER);
-            rightPanel.add(momentumBar, BorderLayout.SOUTH);
-
-            add(centerPanel, BorderLayout.CENTER);
-            add(rightPanel, BorderLayout.EAST);
-        }
-
-        @Override
-        public Component getListCellRendererComponent(JList<? extends TaskUIItem> list, TaskUIItem value, int index, boolean isSelected, boolean cellHasFocus) {
-            Task task = value.task;
-
-            // Background & Selection
-            if (isSelected) {
-                setBackground(new Color(230, 240, 255));
-            } else {
-                setBackground(Color.WHITE);
-            }
-
-            // Indentation
-            int leftInset = value.isSubtask ? 40 : 10;
-
-            // Priority Color
-            Color priorityColor;
-            switch(task.getPriority()) {
-                case HIGH: priorityColor = new Color(255, 80, 80); break;
-                case MEDIUM: priorityColor = new Color(255, 180, 50); break;
-                case LOW: priorityColor = new Color(100, 200, 120); break;
-                default: priorityColor = Color.LIGHT_GRAY;
-            }
-
-            // Create card-like effect with border
-            setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(240, 240, 240)),
-                BorderFactory.createCompoundBorder(
-                    BorderFactory.createEmptyBorder(5, leftInset, 5, 10),
-                    BorderFactory.createCompoundBorder(
-                        BorderFactory.createMatteBorder(0, 4, 0, 0, priorityColor),
-                        BorderFactory.createEmptyBorder(0, 10, 0, 0)
-                    )
-                )
-            ));
-
-            // Text Data
-            titleLabel.setText(task.getName());
-            metaLabel.setText(String.format("%s • %s • %s • %s",
-                task.getPriority(),
-                task.getCategory(),
-                task.getDeadline(),
-                task.getId().substring(0, 6)));
-
-            // Strikethrough if completed
-            Map<TextAttribute, Object> attributes = new HashMap<>(titleLabel.getFont().getAttributes());
-            if (task.getStatus() == Status.COMPLETED) {
-                attributes.put(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON);
-                titleLabel.setForeground(Color.LIGHT_GRAY);
-            } else {
-                attributes.put(TextAttribute.STRIKETHROUGH, false);
-                titleLabel.setForeground(Color.DARK_GRAY);
-            }
-            titleLabel.setFont(new Font(attributes));
-
-            // Status Label
-            statusLabel.setText(task.getStatus().name());
-            statusLabel.setForeground(task.getStatus() == Status.COMPLETED ? new Color(100, 180, 100) : Color.GRAY);
-
-            // Momentum Bar
-            int m = task.getMomentum();
-            momentumBar.setValue(m);
-
-            String icon;
-            if (m >= 90) icon = "🔥🔥🔥";
-            else if (m >= 60) icon = "🔥🔥";
-            else if (m >= 30) icon = "🔥";
-            else icon = "❄️";
-
-            momentumBar.setString(m + " " + icon);
-
-            if (m >= 80) momentumBar.setForeground(new Color(255, 80, 80));
-            else if (m >= 50) momentumBar.setForeground(new Color(255, 165, 0));
-            else momentumBar.setForeground(new Color(100, 180, 255));
-
-            return this;
+    // Run the filter bar's query once on the command thread; the live result follows changes from then on
+    private void applyFilter() {
+        if (filterBar.isInactive()) {
+            taskList.setModel(listModel);
+            return;
         }
+        TaskQuery query = filterBar.query();
+        commands.run("Searching", s -> s.query(query), found -> {
+            if (filterBar.isInactive()) return; // cleared while the search ran
+            queryModel.getQuery().reset(query, found);
+            if (taskList.getModel() != queryModel) taskList.setModel(queryModel);
+        });
     }
 
     // Inner classes for listeners
@@ -249,9 +162,8 @@ public class TodoGUI extends JFrame {
 
                 try {
                     LocalDate deadline = LocalDate.parse(deadlineStr);
-                    service.addTask(name, category, deadline, priority);
-                    refreshTaskList();
-                    messageArea.append("Task added: " + name + "\n");
+                    commands.run("Adding task", s -> s.addTask(name, category, deadline, priority),
+                            task -> messageArea.append("Task added: " + name + "\n"));
                 } catch (DateTimeParseException ex) {
                     JOptionPane.showMessageDialog(TodoGUI.this, "Invalid date format. Use YYYY-MM-DD.");
                 }
@@ -264,9 +176,9 @@ public class TodoGUI extends JFrame {
         public void actionPerformed(ActionEvent e) {
             String idPrefix = JOptionPane.showInputDialog(TodoGUI.this, "Enter task ID prefix (first 6 chars):");
             if (idPrefix != null) {
-                service.deleteTaskById(idPrefix);
-                refreshTaskList();
-                messageArea.append("Task deleted with ID prefix: " + idPrefix + "\n");
+                commands.run("Deleting task", s -> s.deleteTaskById(idPrefix), task -> messageArea.append(task != null
+                        ? "Task deleted with ID prefix: " + idPrefix + "\n"
+                        : "No single task with ID prefix: " + idPrefix + "\n"));
             }
         }
     }
@@ -274,9 +186,9 @@ public class TodoGUI extends JFrame {
     private class UndoDeleteListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            service.undoDelete();
-            refreshTaskList();
-            messageArea.append("Last delete action undone.\n");
+            commands.run("Undoing delete", TodoService::undoDelete, task -> messageArea.append(task != null
+                    ? "Last delete action undone.\n"
+                    : "Nothing to undo.\n"));
         }
     }
 
@@ -304,9 +216,9 @@ public class TodoGUI extends JFrame {
 
                 try {
                     LocalDate deadline = LocalDate.parse(deadlineStr);
-                    service.addSubtask(parentId, name, deadline, priority);
-                    refreshTaskList();
-                    messageArea.append("Subtask added: " + name + " under parent ID: " + parentId + "\n");
+                    commands.run("Adding subtask", s -> s.addSubtask(parentId, name, deadline, priority), sub -> messageArea.append(sub != null
+                            ? "Subtask added: " + name + " under parent ID: " + parentId + "\n"
+                            : "No single top-level task with ID prefix: " + parentId + "\n"));
                 } catch (DateTimeParseException ex) {
                     JOptionPane.showMessageDialog(TodoGUI.this, "Invalid date format. Use YYYY-MM-DD.");
                 }
@@ -323,9 +235,10 @@ public class TodoGUI extends JFrame {
                 int option = JOptionPane.showConfirmDialog(TodoGUI.this, new Object[]{"New Status:", statusBox}, "Update Status", JOptionPane.OK_CANCEL_OPTION);
                 if (option == JOptionPane.OK_OPTION) {
                     Status status = (Status) statusBox.getSelectedItem();
-                    service.updateTaskStatus(idPrefix, status);
-                    refreshTaskList();
-                    messageArea.append("Task status updated for ID prefix: " + idPrefix + " to " + status + "\n");
+                    commands.run("Updating status", s -> {
+                        s.updateTaskStatus(idPrefix, status);
+                        return null;
+                    }, done -> messageArea.append("Task status updated for ID prefix: " + idPrefix + " to " + status + "\n"));
                 }
             }
         }
@@ -334,9 +247,8 @@ public class TodoGUI extends JFrame {
     private class AutoPromoteListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            service.autoPromotePriorities();
-            refreshTaskList();
-            messageArea.append("Task priorities auto-promoted.\n");
+            commands.run("Auto promoting", TodoService::autoPromotePriorities,
+                    summary -> messageArea.append(summary + "\n"));
         }
     }
 
@@ -345,9 +257,10 @@ public class TodoGUI extends JFrame {
         public void actionPerformed(ActionEvent e) {
             String idPrefix = JOptionPane.showInputDialog(TodoGUI.this, "Enter task ID prefix to work on:");
             if (idPrefix != null) {
-                service.workOnTask(idPrefix);
-                refreshTaskList();
-                messageArea.append("Working on task with ID prefix: " + idPrefix + "\n");
+                commands.run("Boosting task", s -> {
+                    s.workOnTask(idPrefix);
+                    return null;
+                }, done -> messageArea.append("Working on task with ID prefix: " + idPrefix + "\n"));
             }
         }
     }
@@ -355,17 +268,17 @@ public class TodoGUI extends JFrame {
     private class UpdateMomentumListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            service.updateMomentum();
-            refreshTaskList();
-            messageArea.append("Task momentum updated.\n");
+            commands.run("Updating momentum", s -> {
+                s.updateMomentum();
+                return null;
+            }, done -> messageArea.append("Task momentum updated.\n"));
         }
     }
 
     private class ShowInsightsListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            String insights = service.showMomentumInsights();
-            messageArea.append(insights);
+            commands.run("Computing insights", TodoService::showMomentumInsights, messageArea::append);
         }
     }
 
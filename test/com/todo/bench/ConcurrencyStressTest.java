@@ -0,0 +1,19 @@
+package com.todo.bench;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A short ConcurrencyStress round, so the ConcurrentTodoService invariants are checked on
+ * every build. The full run (java com.todo.bench.ConcurrencyStress) hammers it for longer.
+ */
+class ConcurrencyStressTest {
+
+    @Test
+    void invariantsHoldUnderConcurrentLoad() throws Exception {
+        assertEquals(List.of(), ConcurrencyStress.run(4, 2_000, 50, 1, 1));
+    }
+}
@@ -0,0 +1,26 @@
+package com.todo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fails the build when a hot query stops using an index on the latest schema.
+ */
+class QueryPlanCheckerTest {
+
+    @Test
+    void hotQueriesUseAnIndexOnAFreshDatabase() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            SchemaMigrations.migrate(conn);
+            assertEquals(List.of(), QueryPlanChecker.findScans(conn));
+            assertDoesNotThrow(() -> QueryPlanChecker.verify(conn));
+        }
+    }
+}